@@ -0,0 +1,124 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.board.MoveGenerator;
+import chess.board.MoveStack;
+import chess.moves.PackedMoveList;
+import chess.perft.Perft;
+import chess.search.Search;
+import chess.search.SearchResult;
+import java.lang.management.ManagementFactory;
+
+/**
+ * AllocationCheck: fails (exit status 1) if move generation, the game-over
+ * check, perft or search allocate on the heap per call once warmed up; it
+ * counts the bytes allocated by this thread around many calls of each, for
+ * every benchmark position
+ *
+ * run by mvn -f benchmarks/pom.xml verify, or on its own with
+ * java -cp benchmarks/target/benchmarks.jar chess.bench.AllocationCheck
+ * @author devang
+ */
+public class AllocationCheck {
+    
+    private static final int WARMUP_CALLS  = 20000;
+    private static final int MEASURE_CALLS = 20000;
+    // deep enough that the search's per-search allocations are spread over many nodes
+    private static final int SEARCH_DEPTH  = 7;
+    
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    
+    private AllocationCheck()
+    {
+    
+    }
+    
+    /**
+     * one call of the code being checked
+     */
+    private interface Call {
+        long run();
+    }
+    
+    public static void main(String[] args)
+    {
+        if (!THREADS.isThreadAllocatedMemorySupported())
+        {
+            System.out.println("allocation check: thread allocation counting is not supported by this JVM, skipped");
+            return;
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        MoveGenerator.setMode(MoveGenerator.Mode.LEGAL);
+        
+        boolean passed = true;
+        for (String name : BenchmarkPositions.NAMES)
+        {
+            BoardState boardState = BenchmarkPositions.create(name);
+            MoveStack  moveStack  = MoveStack.get();
+            Perft      perft      = new Perft();
+            
+            passed &= check(name,"generate",WARMUP_CALLS,MEASURE_CALLS,() -> {
+                PackedMoveList moves = moveStack.push(boardState,boardState.getSideToMove());
+                int size = moves.size();
+                moveStack.pop();
+                return size;
+            });
+            passed &= check(name,"game-over",WARMUP_CALLS,MEASURE_CALLS,
+                            () -> boardState.hasValidMove(boardState.getSideToMove()) ? 1 : 0);
+            passed &= check(name,"perft 3",200,100,() -> perft.count(boardState,3));
+            passed &= checkSearch(name,boardState);
+        }
+        
+        System.out.println(passed ? "allocation check: passed" : "allocation check: FAILED");
+        if (!passed) System.exit(1);
+    }
+    
+    /**
+     * runs a call, warmed up, and reports whether it allocated
+     * @return true if the measured calls allocated nothing
+     */
+    private static boolean check(String position, String name, int warmupCalls, int measureCalls, Call call)
+    {
+        long result = 0;
+        for (int i = 0; i < warmupCalls; i++)
+            result += call.run();
+        
+        long threadId = Thread.currentThread().getId();
+        long before   = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < measureCalls; i++)
+            result += call.run();
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - before;
+        
+        // reading the counter itself may allocate a few bytes, so allow less than one byte per call
+        boolean passed = allocated < measureCalls;
+        System.out.printf("%-10s %-10s %10.2f bytes/call %s (%d)%n",position,name,
+                          (double)allocated / measureCalls,passed ? "ok" : "FAIL",result);
+        return passed;
+    }
+    
+    /**
+     * runs a fixed-depth search, which allocates its result and root move list
+     * once per search, and reports whether it allocated per node; the table
+     * is cleared first, so the search visits its whole tree again
+     * @return true if the search allocated less than one byte per node
+     */
+    private static boolean checkSearch(String position, BoardState boardState)
+    {
+        Search search = new Search(SEARCH_DEPTH,Long.MAX_VALUE);
+        search.setMoveTime(3600000);
+        for (int i = 0; i < 3; i++)
+            search.search(boardState,boardState.getSideToMove());
+        
+        search.getTranspositionTable().clear();
+        long threadId = Thread.currentThread().getId();
+        long before   = THREADS.getThreadAllocatedBytes(threadId);
+        SearchResult result = search.search(boardState,boardState.getSideToMove());
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - before;
+        
+        boolean passed = allocated < result.getNodes();
+        System.out.printf("%-10s %-10s %10.2f bytes/node %s (%d nodes)%n",position,"search",
+                          (double)allocated / Math.max(1,result.getNodes()),passed ? "ok" : "FAIL",result.getNodes());
+        return passed;
+    }
+}
@@ -0,0 +1,81 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.board.Fen;
+import chess.pieces.Piece;
+
+/**
+ * BenchmarkPositions: the fixed corpus of positions the benchmarks run over,
+ * from the opening to the endgame, so results stay comparable between runs
+ * @author devang
+ */
+public class BenchmarkPositions {
+    public static final String START      = Fen.START_POSITION;
+    public static final String KIWIPETE   = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    public static final String MIDDLEGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+    public static final String TACTICAL   = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    public static final String ENDGAME    = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    public static final String EN_PASSANT = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+    public static final String PROMOTION  = "8/P6k/8/8/8/8/6PK/8 w - - 0 1";
+    
+    /**
+     * names of the positions a benchmark can be parameterized over
+     */
+    public static final String[] NAMES = { "start", "kiwipete", "middlegame", "tactical", "endgame" };
+    
+    private BenchmarkPositions()
+    {
+        
+    }
+    
+    /**
+     * gets the FEN of a position of the corpus
+     * @param name one of NAMES, or "enpassant" or "promotion"
+     * @return FEN string of the position
+     */
+    public static String getFen(String name)
+    {
+        switch (name)
+        {
+            case "start":      return START;
+            case "kiwipete":   return KIWIPETE;
+            case "middlegame": return MIDDLEGAME;
+            case "tactical":   return TACTICAL;
+            case "endgame":    return ENDGAME;
+            case "enpassant":  return EN_PASSANT;
+            case "promotion":  return PROMOTION;
+            default:
+                throw new IllegalArgumentException("no benchmark position named " + name);
+        }
+    }
+    
+    /**
+     * creates a board state holding a position of the corpus
+     * @param name one of NAMES, or "enpassant" or "promotion"
+     * @return newly-created board state
+     */
+    public static BoardState create(String name)
+    {
+        return Fen.toBoardState(getFen(name));
+    }
+    
+    /**
+     * replaces the position on an existing board state, e.g. the game's own,
+     * with a copy of another
+     * @param target board state to overwrite
+     * @param source board state to copy
+     */
+    public static void loadInto(BoardState target, BoardState source)
+    {
+        for (int square = 0; square < 64; square++)
+        {
+            target.removePiece(square);
+            Piece piece = source.getPiece(square);
+            if (piece != null)
+                target.setPiece(square,Piece.copy(piece));
+        }
+        target.setSideToMove(source.getSideToMove());
+        target.setCastlingRights(source.getCastlingRights());
+        target.setEnPassantFile(source.getEnPassantFile());
+    }
+}
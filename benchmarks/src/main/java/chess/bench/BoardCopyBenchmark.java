@@ -0,0 +1,60 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.moves.Move;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BoardCopyBenchmark: BoardState.copy of a position, with and without a
+ * played-out game's move history behind it (the copy is deep, histories included)
+ * @author devang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardCopyBenchmark {
+    
+    @Param({ "start", "kiwipete", "middlegame", "tactical", "endgame" })
+    public String position;
+    
+    @Param({ "0", "40" })
+    public int historyPlies;
+    
+    private BoardState boardState;
+    
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        boardState = BenchmarkPositions.create(position);
+        // play out the first generated move for a number of plies, giving
+        // the board and its pieces a history to copy
+        for (int i = 0; i < historyPlies; i++)
+        {
+            List<Move> moves = boardState.getValidMoves(boardState.getSideToMove());
+            if (moves.isEmpty()) break;
+            moves.get(0).commitMove(boardState);
+        }
+    }
+    
+    @Benchmark
+    public BoardState copy()
+    {
+        return BoardState.copy(boardState);
+    }
+}
@@ -0,0 +1,61 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.pieces.Piece;
+import chess.utility.Location;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static chess.game.GameProperties.PlayerColor.BLACK;
+import static chess.game.GameProperties.PlayerColor.WHITE;
+
+/**
+ * CheckBenchmark: Piece.check of both kings, i.e. one in-check test per side
+ * @author devang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckBenchmark {
+    
+    @Param({ "start", "kiwipete", "middlegame", "tactical", "endgame" })
+    public String position;
+    
+    private BoardState boardState;
+    private Piece      whiteKing;
+    private Piece      blackKing;
+    private Location   whiteKingLocation;
+    private Location   blackKingLocation;
+    
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        boardState        = BenchmarkPositions.create(position);
+        whiteKingLocation = Location.of(boardState.getKingSquare(WHITE));
+        blackKingLocation = Location.of(boardState.getKingSquare(BLACK));
+        whiteKing         = boardState.getPiece(whiteKingLocation);
+        blackKing         = boardState.getPiece(blackKingLocation);
+    }
+    
+    @Benchmark
+    public void check(Blackhole blackhole)
+    {
+        blackhole.consume(whiteKing.check(whiteKingLocation,boardState));
+        blackhole.consume(blackKing.check(blackKingLocation,boardState));
+    }
+}
@@ -0,0 +1,92 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.moves.Move;
+import chess.moves.MoveCapture;
+import chess.moves.MoveCastle;
+import chess.moves.MoveEnPassant;
+import chess.moves.MovePromotion;
+import chess.moves.MoveRegular;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CommitMoveBenchmark: Move.commitMove for each subclass of Move; each
+ * operation commits the move and takes it back with BoardState.unmakeMove,
+ * so the board is the same at every invocation
+ * @author devang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommitMoveBenchmark {
+    
+    @Param({ "regular", "capture", "castle", "enpassant", "promotion" })
+    public String moveType;
+    
+    private BoardState boardState;
+    private Move       move;
+    
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Class<? extends Move> moveClass;
+        switch (moveType)
+        {
+            case "regular":
+                boardState = BenchmarkPositions.create("start");
+                moveClass  = MoveRegular.class;
+                break;
+            case "capture":
+                boardState = BenchmarkPositions.create("kiwipete");
+                moveClass  = MoveCapture.class;
+                break;
+            case "castle":
+                boardState = BenchmarkPositions.create("kiwipete");
+                moveClass  = MoveCastle.class;
+                break;
+            case "enpassant":
+                boardState = BenchmarkPositions.create("enpassant");
+                moveClass  = MoveEnPassant.class;
+                break;
+            default:
+                boardState = BenchmarkPositions.create("promotion");
+                moveClass  = MovePromotion.class;
+                break;
+        }
+        
+        for (Move validMove : boardState.getValidMoves(boardState.getSideToMove()))
+        {
+            if (validMove.getClass() == moveClass)
+            {
+                move = validMove;
+                break;
+            }
+        }
+        if (move == null)
+            throw new IllegalStateException("no " + moveClass.getSimpleName() + " in the " + moveType + " position");
+    }
+    
+    @Benchmark
+    public long commitMove()
+    {
+        move.commitMove(boardState);
+        long key = boardState.getHashKey();
+        boardState.unmakeMove();
+        return key;
+    }
+}
@@ -0,0 +1,78 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.board.MoveGenerator;
+import chess.moves.PackedMoveList;
+import chess.search.Evaluation;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * EvaluationBenchmark: positions evaluated per second, by the incrementally
+ * kept piece-square scores (Evaluation.evaluate) and by summing the tables
+ * over the pieces (Evaluation.evaluateFromScratch); each call evaluates the
+ * next of the positions one move away from the benchmark position, in turn
+ * @author devang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+    
+    @Param({ "start", "kiwipete", "middlegame", "tactical", "endgame" })
+    public String position;
+    
+    private BoardState[] positions;
+    private int          index;
+    
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        BoardState     boardState = BenchmarkPositions.create(position);
+        PackedMoveList moves      = new PackedMoveList();
+        MoveGenerator.generate(boardState,boardState.getSideToMove(),moves);
+        positions = new BoardState[moves.size()];
+        for (int i = 0; i < moves.size(); i++)
+        {
+            boardState.makeMove(moves.get(i));
+            positions[i] = BoardState.copy(boardState);
+            boardState.unmakeMove();
+        }
+        index = 0;
+    }
+    
+    @Benchmark
+    public int incremental()
+    {
+        BoardState boardState = next();
+        return Evaluation.evaluate(boardState,boardState.getSideToMove());
+    }
+    
+    @Benchmark
+    public int fromScratch()
+    {
+        BoardState boardState = next();
+        return Evaluation.evaluateFromScratch(boardState,boardState.getSideToMove());
+    }
+    
+    private BoardState next()
+    {
+        BoardState boardState = positions[index];
+        index = (index + 1 == positions.length) ? 0 : index + 1;
+        return boardState;
+    }
+}
@@ -0,0 +1,52 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.game.Game;
+import chess.game.PlayerManager;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GameOverBenchmark: GameManager.checkGameOver, run after every move of a
+ * game, on the game's own board loaded with a position of the corpus
+ * @author devang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameOverBenchmark {
+    
+    @Param({ "start", "kiwipete", "middlegame", "tactical", "endgame" })
+    public String position;
+    
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        BoardState boardState = BenchmarkPositions.create(position);
+        BenchmarkPositions.loadInto(Game.getBoardState(),boardState);
+        
+        PlayerManager playerManager = Game.getPlayerManager();
+        if (playerManager.getActivePlayerColor() != boardState.getSideToMove())
+            playerManager.togglePlayer();
+    }
+    
+    @Benchmark
+    public boolean checkGameOver()
+    {
+        return Game.getGameManager().checkGameOver();
+    }
+}
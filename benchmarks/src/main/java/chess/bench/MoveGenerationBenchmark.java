@@ -0,0 +1,130 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.board.MoveGenerator;
+import chess.moves.Move;
+import chess.moves.PackedMoveList;
+import chess.pieces.Piece;
+import chess.utility.Location;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * MoveGenerationBenchmark: Piece.getValidMoves for every piece of one type
+ * belonging to the side to move, and whole-position generation through
+ * BoardState.getValidMoves with each MoveGenerator.Mode, and packed into a
+ * reused PackedMoveList
+ * @author devang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+    
+    @Param({ "start", "kiwipete", "middlegame", "tactical", "endgame" })
+    public String position;
+    
+    private BoardState     boardState;
+    private Location[][]   pieceLocations;
+    private PackedMoveList packedMoves;
+    
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        boardState     = BenchmarkPositions.create(position);
+        packedMoves    = new PackedMoveList();
+        pieceLocations = new Location[6][];
+        for (int type = Piece.PAWN; type <= Piece.KING; type++)
+        {
+            long pieces = boardState.getPieces(boardState.getSideToMove(),type);
+            pieceLocations[type] = new Location[Long.bitCount(pieces)];
+            for (int i = 0; pieces != 0; i++)
+            {
+                pieceLocations[type][i] = Location.of(Long.numberOfTrailingZeros(pieces));
+                pieces &= pieces - 1;
+            }
+        }
+    }
+    
+    private void generate(int type, Blackhole blackhole)
+    {
+        for (Location location : pieceLocations[type])
+            blackhole.consume(boardState.getPiece(location).getValidMoves(location,boardState));
+    }
+    
+    @Benchmark
+    public void pawns(Blackhole blackhole)
+    {
+        generate(Piece.PAWN,blackhole);
+    }
+    
+    @Benchmark
+    public void knights(Blackhole blackhole)
+    {
+        generate(Piece.KNIGHT,blackhole);
+    }
+    
+    @Benchmark
+    public void bishops(Blackhole blackhole)
+    {
+        generate(Piece.BISHOP,blackhole);
+    }
+    
+    @Benchmark
+    public void rooks(Blackhole blackhole)
+    {
+        generate(Piece.ROOK,blackhole);
+    }
+    
+    @Benchmark
+    public void queens(Blackhole blackhole)
+    {
+        generate(Piece.QUEEN,blackhole);
+    }
+    
+    @Benchmark
+    public void king(Blackhole blackhole)
+    {
+        generate(Piece.KING,blackhole);
+    }
+    
+    @Benchmark
+    public List<Move> legalGenerator()
+    {
+        MoveGenerator.setMode(MoveGenerator.Mode.LEGAL);
+        return boardState.getValidMoves(boardState.getSideToMove());
+    }
+    
+    @Benchmark
+    public int packedGenerator()
+    {
+        packedMoves.clear();
+        MoveGenerator.generate(boardState,boardState.getSideToMove(),packedMoves);
+        return packedMoves.size();
+    }
+    
+    @Benchmark
+    public List<Move> makeAndTestGenerator()
+    {
+        MoveGenerator.setMode(MoveGenerator.Mode.MAKE_AND_TEST);
+        List<Move> moves = boardState.getValidMoves(boardState.getSideToMove());
+        MoveGenerator.setMode(MoveGenerator.Mode.LEGAL);
+        return moves;
+    }
+}
@@ -0,0 +1,48 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.search.Search;
+import chess.search.SearchResult;
+
+/**
+ * OrderingReport: searches every benchmark position to a fixed depth with
+ * each move-ordering heuristic of the Search switched off in turn, and
+ * prints the nodes searched, the effective branching factor and the
+ * first-move cut-off rate of each, so the heuristics' effect can be compared
+ *
+ * run with java -cp benchmarks/target/benchmarks.jar chess.bench.OrderingReport [depth]
+ * @author devang
+ */
+public class OrderingReport {
+    public static final int DEFAULT_DEPTH = 6;
+    
+    private static final String[] CONFIGURATIONS = { "all", "no killers", "no history", "no counter-moves", "none" };
+    
+    private OrderingReport()
+    {
+    
+    }
+    
+    public static void main(String[] args)
+    {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        
+        System.out.printf("%-10s %-16s %10s %6s %8s%n","position","ordering","nodes","ebf","1st cut");
+        for (String name : BenchmarkPositions.NAMES)
+        {
+            for (String configuration : CONFIGURATIONS)
+            {
+                BoardState boardState = BenchmarkPositions.create(name);
+                Search     search     = new Search(depth,Long.MAX_VALUE);
+                search.setMoveTime(3600000);
+                search.setKillersEnabled(!configuration.equals("no killers") && !configuration.equals("none"));
+                search.setHistoryEnabled(!configuration.equals("no history") && !configuration.equals("none"));
+                search.setCounterMovesEnabled(!configuration.equals("no counter-moves") && !configuration.equals("none"));
+                
+                SearchResult result = search.search(boardState,boardState.getSideToMove());
+                System.out.printf("%-10s %-16s %10d %6.2f %7.1f%%%n",name,configuration,result.getNodes(),
+                                  search.getEffectiveBranchingFactor(),100 * search.getFirstMoveCutoffRate());
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.moves.Move;
+import chess.search.Evaluation;
+import chess.search.PawnHashTable;
+import chess.search.Search;
+import chess.search.SearchResult;
+
+/**
+ * PawnHashReport: searches every benchmark position to a fixed depth, on one
+ * thread, starting with an empty pawn hash table, and prints the pawn hash
+ * probes and hit rate of each search; in a middlegame, well over 95% of the
+ * evaluations should find their pawn structure cached
+ *
+ * it then plays a few moves on from the middlegame position, as the CPU
+ * player would on its long-lived search thread, and prints the hit rate of
+ * each move's search with the table kept from the moves before and with the
+ * table emptied first
+ *
+ * run with java -cp benchmarks/target/benchmarks.jar chess.bench.PawnHashReport [depth]
+ * @author devang
+ */
+public class PawnHashReport {
+    public static final int DEFAULT_DEPTH = 7;
+    public static final int GAME_MOVES    = 8;
+    
+    private PawnHashReport()
+    {
+    
+    }
+    
+    public static void main(String[] args)
+    {
+        int           depth     = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        PawnHashTable pawnTable = Evaluation.getPawnHashTable();
+        
+        System.out.printf("%-10s %10s %10s %10s %9s%n","position","nodes","probes","hits","hit rate");
+        for (String name : BenchmarkPositions.NAMES)
+        {
+            BoardState boardState = BenchmarkPositions.create(name);
+            Search     search     = new Search(depth,Long.MAX_VALUE);
+            search.setMoveTime(3600000);
+            pawnTable.clear();
+            
+            SearchResult result = search.search(boardState,boardState.getSideToMove());
+            System.out.printf("%-10s %10d %10d %10d %8.2f%%%n",name,result.getNodes(),pawnTable.getProbes(),
+                              pawnTable.getHits(),100 * pawnTable.getHitRate());
+        }
+        
+        System.out.println();
+        System.out.printf("%-10s %10s %10s%n","move","kept","emptied");
+        // the line is played with the table kept from move to move, then
+        // searched again, move by move, with the table emptied first
+        BoardState keptBoard    = BenchmarkPositions.create("middlegame");
+        BoardState emptiedBoard = BenchmarkPositions.create("middlegame");
+        Search     kept         = new Search(depth,Long.MAX_VALUE);
+        Search     emptied      = new Search(depth,Long.MAX_VALUE);
+        kept.setMoveTime(3600000);
+        emptied.setMoveTime(3600000);
+        Move[]     line         = new Move[GAME_MOVES];
+        double[]   keptRates    = new double[GAME_MOVES];
+        pawnTable.clear();
+        for (int move = 0; move < GAME_MOVES; move++)
+        {
+            pawnTable.resetStatistics();
+            line[move]      = kept.search(BoardState.copy(keptBoard),keptBoard.getSideToMove()).getMove();
+            keptRates[move] = pawnTable.getHitRate();
+            if (line[move] == null) break;
+            keptBoard.makeMove(line[move]);
+        }
+        for (int move = 0; (move < GAME_MOVES) && (line[move] != null); move++)
+        {
+            pawnTable.clear();
+            emptied.search(BoardState.copy(emptiedBoard),emptiedBoard.getSideToMove());
+            System.out.printf("%-10d %9.2f%% %9.2f%%%n",move + 1,100 * keptRates[move],100 * pawnTable.getHitRate());
+            emptiedBoard.makeMove(line[move]);
+        }
+    }
+}
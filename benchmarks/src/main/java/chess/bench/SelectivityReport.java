@@ -0,0 +1,51 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.search.Search;
+import chess.search.SearchResult;
+
+/**
+ * SelectivityReport: searches every benchmark position to a fixed depth with
+ * each selective-search technique of the Search (PVS, null-move pruning,
+ * late move reductions, aspiration windows) switched off in turn, and then
+ * all of them, and prints the nodes and time each took to reach the depth,
+ * with the move and score found
+ *
+ * run with java -cp benchmarks/target/benchmarks.jar chess.bench.SelectivityReport [depth]
+ * @author devang
+ */
+public class SelectivityReport {
+    public static final int DEFAULT_DEPTH = 7;
+    
+    private static final String[] CONFIGURATIONS = { "all", "no pvs", "no null move", "no lmr", "no aspiration", "none" };
+    
+    private SelectivityReport()
+    {
+    
+    }
+    
+    public static void main(String[] args)
+    {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        
+        System.out.printf("%-10s %-14s %10s %8s %6s %7s%n","position","selectivity","nodes","ms","move","score");
+        for (String name : BenchmarkPositions.NAMES)
+        {
+            for (String configuration : CONFIGURATIONS)
+            {
+                boolean    none       = configuration.equals("none");
+                BoardState boardState = BenchmarkPositions.create(name);
+                Search     search     = new Search(depth,Long.MAX_VALUE);
+                search.setMoveTime(3600000);
+                search.setPvsEnabled(!none && !configuration.equals("no pvs"));
+                search.setNullMoveEnabled(!none && !configuration.equals("no null move"));
+                search.setLateMoveReductionsEnabled(!none && !configuration.equals("no lmr"));
+                search.setAspirationEnabled(!none && !configuration.equals("no aspiration"));
+                
+                SearchResult result = search.search(boardState,boardState.getSideToMove());
+                System.out.printf("%-10s %-14s %10d %8d %6s %7d%n",name,configuration,result.getNodes(),
+                                  result.getElapsedMillis(),result.getMove(),result.getScore());
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.search.Search;
+import chess.search.Search.ParallelMode;
+import chess.search.SearchResult;
+
+/**
+ * SmpScalingReport: time-to-depth of the parallel search with 1, 2, 4, 8 and
+ * 16 threads, by each ParallelMode (Lazy SMP and Young Brothers Wait); every
+ * benchmark position is searched to a fixed depth with a cleared
+ * transposition table, and the report gives, per mode and thread count, the
+ * total time and nodes, the speedup over one thread, and the node overhead
+ * (nodes searched relative to one thread), so it shows where extra threads
+ * stop paying off, and which mode they pay off more in; speedups above the
+ * number of available processors are not to be expected
+ *
+ * run with java -cp benchmarks/target/benchmarks.jar chess.bench.SmpScalingReport [depth [threads ...]]
+ * @author devang
+ */
+public class SmpScalingReport {
+    public static final int   DEFAULT_DEPTH   = 8;
+    public static final int[] DEFAULT_THREADS = { 1, 2, 4, 8, 16 };
+    
+    private SmpScalingReport()
+    {
+    
+    }
+    
+    public static void main(String[] args)
+    {
+        int   depth   = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        int[] threads = DEFAULT_THREADS;
+        if (args.length > 1)
+        {
+            threads = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++)
+                threads[i - 1] = Integer.parseInt(args[i]);
+        }
+        
+        // one search per mode and thread count, so each pool of threads is only started once
+        Search[][] searches = new Search[ParallelMode.values().length][threads.length];
+        for (ParallelMode mode : ParallelMode.values())
+        {
+            for (int index = 0; index < threads.length; index++)
+            {
+                Search search = new Search(depth,Long.MAX_VALUE);
+                search.setMoveTime(3600000);
+                search.setThreads(threads[index]);
+                search.setParallelMode(mode);
+                searches[mode.ordinal()][index] = search;
+            }
+        }
+        
+        // one discarded pass warms up the JIT, which would otherwise penalize the first thread count
+        for (Search[] modeSearches : searches)
+        {
+            for (Search search : modeSearches)
+            {
+                for (String name : BenchmarkPositions.NAMES)
+                    searchToDepth(search,name);
+            }
+        }
+        
+        System.out.printf("available processors %d, depth %d%n",Runtime.getRuntime().availableProcessors(),depth);
+        System.out.printf("%-14s %7s %10s %12s %12s %8s %9s%n","mode","threads","ms","nodes","nps","speedup","overhead");
+        for (ParallelMode mode : ParallelMode.values())
+        {
+            long baseNanos = 0;
+            long baseNodes = 0;
+            for (int index = 0; index < threads.length; index++)
+            {
+                long nanos = 0;
+                long nodes = 0;
+                for (String name : BenchmarkPositions.NAMES)
+                {
+                    SearchResult result = searchToDepth(searches[mode.ordinal()][index],name);
+                    nanos += result.getElapsedNanos();
+                    nodes += result.getNodes();
+                }
+                if (baseNanos == 0)
+                {
+                    baseNanos = nanos;
+                    baseNodes = nodes;
+                }
+                System.out.printf("%-14s %7d %10d %12d %12d %8.2f %9.2f%n",mode,threads[index],nanos / 1000000,nodes,
+                                  (nodes * 1000000000L) / Math.max(1,nanos),(double)baseNanos / nanos,(double)nodes / baseNodes);
+            }
+        }
+    }
+    
+    /**
+     * searches a position of the corpus to a fixed depth, with a cleared table
+     */
+    private static SearchResult searchToDepth(Search search, String name)
+    {
+        BoardState boardState = BenchmarkPositions.create(name);
+        search.getTranspositionTable().clear();
+        return search.search(boardState,boardState.getSideToMove());
+    }
+}
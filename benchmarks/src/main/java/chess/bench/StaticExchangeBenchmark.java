@@ -0,0 +1,60 @@
+package chess.bench;
+
+import chess.board.BoardState;
+import chess.board.MoveGenerator;
+import chess.moves.PackedMoveList;
+import chess.search.StaticExchange;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StaticExchangeBenchmark: the cost of one StaticExchange.evaluate call;
+ * each call evaluates the next of the side to move's captures (or of all
+ * its moves, in a position without captures), in turn
+ * @author devang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaticExchangeBenchmark {
+    
+    @Param({ "start", "kiwipete", "middlegame", "tactical", "endgame" })
+    public String position;
+    
+    private BoardState     boardState;
+    private PackedMoveList moves;
+    private int            index;
+    
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        boardState = BenchmarkPositions.create(position);
+        moves      = new PackedMoveList();
+        MoveGenerator.generateCaptures(boardState,boardState.getSideToMove(),moves);
+        if (moves.isEmpty())
+            MoveGenerator.generate(boardState,boardState.getSideToMove(),moves);
+        index = 0;
+    }
+    
+    @Benchmark
+    public int evaluate()
+    {
+        int move = moves.get(index);
+        index = (index + 1 == moves.size()) ? 0 : index + 1;
+        return StaticExchange.evaluate(boardState,move);
+    }
+}
@@ -201,7 +201,7 @@ public class NetworkChessWindow implements ActionListener {
         }
 
         
-        if (s.equals("Local AI Chess"))
+        if (s.equals("Local 1P Chess"))
         {
             Game.startLocalAIGame();
             startClientButton.setEnabled(false);
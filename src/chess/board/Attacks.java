@@ -0,0 +1,164 @@
+package chess.board;
+
+import chess.game.GameProperties.PlayerColor;
+
+/**
+ * Attacks: precomputed attack tables for the pieces that jump, rather than
+ * slide, to their destinations (knights, kings and pawn captures), and entry
+ * points to the magic-bitboard tables of the sliding pieces (see Magics)
+ * 
+ * boards are 64-bit bitboards: bit (rank*8+file) is set for each square in
+ * the set, so an attack test is one table read and one AND against the
+ * bitboard of the attacking pieces kept by BoardState
+ * @author devang
+ */
+public class Attacks {
+    private static final long[]   KNIGHT = new long[64];
+    private static final long[]   KING   = new long[64];
+    private static final long[][] PAWN   = new long[2][64];
+    // squares strictly between, and the whole line through, two squares on a shared rank, file or diagonal
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE    = new long[64][64];
+    
+    private static final int[][] KNIGHT_STEPS = { {1,2}, {2,1}, {2,-1}, {1,-2}, {-1,-2}, {-2,-1}, {-2,1}, {-1,2} };
+    private static final int[][] KING_STEPS   = { {1,0}, {1,1}, {0,1}, {-1,1}, {-1,0}, {-1,-1}, {0,-1}, {1,-1} };
+    
+    static
+    {
+        for (int square = 0; square < 64; square++)
+        {
+            int file = square & 7;
+            int rank = square >> 3;
+            for (int[] step : KNIGHT_STEPS)
+                KNIGHT[square] |= bit(file + step[0],rank + step[1]);
+            for (int[] step : KING_STEPS)
+                KING[square] |= bit(file + step[0],rank + step[1]);
+            PAWN[PlayerColor.WHITE.ordinal()][square] = bit(file - 1,rank + 1) | bit(file + 1,rank + 1);
+            PAWN[PlayerColor.BLACK.ordinal()][square] = bit(file - 1,rank - 1) | bit(file + 1,rank - 1);
+        }
+        
+        for (int from = 0; from < 64; from++)
+        {
+            for (int to = 0; to < 64; to++)
+            {
+                if (from == to) continue;
+                long ends = (1L << from) | (1L << to);
+                if ((rook(from,0) & (1L << to)) != 0)
+                {
+                    BETWEEN[from][to] = rook(from,1L << to) & rook(to,1L << from);
+                    LINE[from][to]    = (rook(from,0) & rook(to,0)) | ends;
+                }
+                else if ((bishop(from,0) & (1L << to)) != 0)
+                {
+                    BETWEEN[from][to] = bishop(from,1L << to) & bishop(to,1L << from);
+                    LINE[from][to]    = (bishop(from,0) & bishop(to,0)) | ends;
+                }
+            }
+        }
+    }
+    
+    private Attacks()
+    {
+        
+    }
+    
+    /**
+     * gets the bitboard of a single square
+     * @param file 0 - 7, off-board values allowed
+     * @param rank 0 - 7, off-board values allowed
+     * @return bitboard with only that square set, 0 if the square is off the board
+     */
+    private static long bit(int file, int rank)
+    {
+        if ((file < 0) || (file > 7) || (rank < 0) || (rank > 7)) return 0;
+        return 1L << ((rank * 8) + file);
+    }
+    
+    /**
+     * gets the squares a knight attacks
+     * @param square rank*8+file of the knight
+     * @return bitboard of attacked squares
+     */
+    public static long knight(int square)
+    {
+        return KNIGHT[square];
+    }
+    
+    /**
+     * gets the squares a king attacks
+     * @param square rank*8+file of the king
+     * @return bitboard of attacked squares
+     */
+    public static long king(int square)
+    {
+        return KING[square];
+    }
+    
+    /**
+     * gets the squares a pawn attacks (diagonally forward, in its own direction)
+     * @param color color of the pawn
+     * @param square rank*8+file of the pawn
+     * @return bitboard of attacked squares
+     */
+    public static long pawn(PlayerColor color, int square)
+    {
+        return PAWN[color.ordinal()][square];
+    }
+    
+    /**
+     * gets the squares strictly between two squares on a shared rank, file or
+     * diagonal: the squares a piece must occupy to block a slider's attack
+     * @param from rank*8+file of one square
+     * @param to rank*8+file of the other square
+     * @return bitboard of squares between, 0 if the squares are adjacent or not aligned
+     */
+    public static long between(int from, int to)
+    {
+        return BETWEEN[from][to];
+    }
+    
+    /**
+     * gets the whole line (edge to edge) through two squares on a shared rank,
+     * file or diagonal: the squares a pinned piece may still move along
+     * @param from rank*8+file of one square
+     * @param to rank*8+file of the other square
+     * @return bitboard of the line, 0 if the squares are not aligned
+     */
+    public static long line(int from, int to)
+    {
+        return LINE[from][to];
+    }
+    
+    /**
+     * gets the squares a rook attacks
+     * @param square rank*8+file of the rook
+     * @param occupied bitboard of all pieces on the board
+     * @return bitboard of attacked squares, up to and including the first piece on each ray
+     */
+    public static long rook(int square, long occupied)
+    {
+        return Magics.rook(square,occupied);
+    }
+    
+    /**
+     * gets the squares a bishop attacks
+     * @param square rank*8+file of the bishop
+     * @param occupied bitboard of all pieces on the board
+     * @return bitboard of attacked squares, up to and including the first piece on each ray
+     */
+    public static long bishop(int square, long occupied)
+    {
+        return Magics.bishop(square,occupied);
+    }
+    
+    /**
+     * gets the squares a queen attacks
+     * @param square rank*8+file of the queen
+     * @param occupied bitboard of all pieces on the board
+     * @return bitboard of attacked squares, up to and including the first piece on each ray
+     */
+    public static long queen(int square, long occupied)
+    {
+        return Magics.rook(square,occupied) | Magics.bishop(square,occupied);
+    }
+}
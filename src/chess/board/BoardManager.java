@@ -63,5 +63,8 @@ public class BoardManager {
         boardState.setPiece(PieceBishop.create(BLACK),Location.at("f","8"));
         boardState.setPiece(PieceKnight.create(BLACK),Location.at("g","8"));
         boardState.setPiece(PieceRook.create(BLACK),Location.at("h","8"));
+        
+        boardState.setSideToMove(WHITE);
+        boardState.setCastlingRights(BoardState.ALL_CASTLING);
     }
 }
@@ -1,16 +1,17 @@
 package chess.board;
 
 import chess.books.MoveHistory;
+import chess.game.GameProperties;
 import chess.game.GameProperties.PlayerColor;
+import static chess.game.GameProperties.PlayerColor.BLACK;
+import static chess.game.GameProperties.PlayerColor.WHITE;
 import chess.moves.Move;
+import chess.moves.PackedMove;
 import chess.pieces.Piece;
-import chess.pieces.PieceKing;
 import chess.utility.Location;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  *
@@ -18,31 +19,489 @@ import java.util.Set;
  */
 public class BoardState {
     
+    /**
+     * gets every valid move of the piece at a location, from the generator
+     * selected by MoveGenerator.setMode
+     * @param location location of the piece to move
+     * @return List of valid moves, null if the location is empty
+     */
     public List<Move> getValidMoves(Location location)
     {
         if (isEmpty(location)) return null;
         Piece piece = getPiece(location);
+        if (MoveGenerator.getMode() == MoveGenerator.Mode.LEGAL)
+            return MoveGenerator.generate(this,piece.getColor(),1L << Location.getIndex(location));
         return piece.getValidMoves(location,this);
     }
-    
+
+    /**
+     * gets every valid move for all of the pieces of one player, from the 
+     * generator selected by MoveGenerator.setMode
+     * @param color player whose moves to generate
+     * @return List of valid moves, empty if the player cannot move
+     */
+    public List<Move> getValidMoves(PlayerColor color)
+    {
+        if (MoveGenerator.getMode() == MoveGenerator.Mode.LEGAL)
+            return MoveGenerator.generate(this,color);
+        
+        List<Move> validMoves = new ArrayList<>();
+        for (int square = 0; square < 64; square++)
+        {
+            Piece piece = squares[square];
+            if ((piece != null) && (piece.getColor() == color))
+                validMoves.addAll(piece.getValidMoves(Location.of(square),this));
+        }
+        return validMoves;
+    }
+
+    /**
+     * determines if a player has any valid move, from the generator selected
+     * by MoveGenerator.setMode; the LEGAL generator allocates nothing for this
+     * @param color player to test
+     * @return true if the player can move
+     */
+    public boolean hasValidMove(PlayerColor color)
+    {
+        if (MoveGenerator.getMode() == MoveGenerator.Mode.LEGAL)
+            return MoveGenerator.hasLegalMove(this,color);
+        return !getValidMoves(color).isEmpty();
+    }
+
     public MoveHistory moveHistory;
     
+    public static final int WHITE_KINGSIDE  = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE  = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING    = 15;
+    
+    // castling rights that survive a move starting or ending on each square
+    private static final int[] CASTLING_MASKS = new int[64];
+    
+    static
+    {
+        Arrays.fill(CASTLING_MASKS,ALL_CASTLING);
+        CASTLING_MASKS[0]  = ALL_CASTLING & ~WHITE_QUEENSIDE;
+        CASTLING_MASKS[4]  = ALL_CASTLING & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASKS[7]  = ALL_CASTLING & ~WHITE_KINGSIDE;
+        CASTLING_MASKS[56] = ALL_CASTLING & ~BLACK_QUEENSIDE;
+        CASTLING_MASKS[60] = ALL_CASTLING & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[63] = ALL_CASTLING & ~BLACK_KINGSIDE;
+    }
+    
     /////////////////////////////////
     
-    protected Set<Piece>                 pieces;
-    protected Map<Location,Piece>        pieceLocations;
-    //protected Map<Piece,Location>        locations;
-    private   Map<PlayerColor,PieceKing> kings;
-    private   Map<PieceKing,Location>    kingLocations;
+    // mailbox board: one entry per square, indexed by rank*8+file
+    protected final Piece[] squares;
+    // square of each king, indexed by PlayerColor.ordinal(), -1 if not on the board
+    private   final int[]   kingSquares;
+    // bitboards (bit rank*8+file set per occupied square): per piece code, per color, and all pieces
+    private   final long[]  pieceBitboards;
+    private   final long[]  colorBitboards;
+    private   long          occupied;
+    
+    private   PlayerColor sideToMove;
+    private   int         castlingRights;
+    private   int         enPassantFile;
+    private   int         halfmoveClock;
+    private   long        hashKey;
+    // Zobrist key of the pawns alone
+    private   long        pawnKey;
+    // sums over the pieces of their PieceSquareTables values, and of their phase weights
+    private   int         middlegameScore;
+    private   int         endgameScore;
+    private   int         phase;
+    
+    // records of the moves made on this board, most recent at undoCount-1
+    private   UndoRecord[] undoStack;
+    private   int          undoCount;
+    // packed move last made on the board this one was copied from, for an empty undo stack
+    private   int          copiedLastMove;
     
     public BoardState()
     {
-        pieces         = new HashSet<>();
-        pieceLocations = new HashMap<>();
-        kings          = new HashMap<>();
-        kingLocations  = new HashMap<>();
+        squares     = new Piece[64];
+        kingSquares = new int[] { -1, -1 };
+        
+        pieceBitboards = new long[12];
+        colorBitboards = new long[2];
+        occupied       = 0;
         
         moveHistory = MoveHistory.createNew();
+        
+        sideToMove     = WHITE;
+        castlingRights = 0;
+        enPassantFile  = -1;
+        halfmoveClock  = 0;
+        hashKey        = 0;
+        pawnKey        = 0;
+        middlegameScore = 0;
+        endgameScore    = 0;
+        phase           = 0;
+        
+        undoStack = new UndoRecord[64];
+        undoCount = 0;
+        copiedLastMove = PackedMove.NONE;
+    }
+    
+    /**
+     * gets the Zobrist key of this position: pieces, side to move, castling 
+     * rights and en-passant file; it is maintained incrementally by setPiece, 
+     * removePiece and completeMove, so reading it costs nothing
+     * @return 64-bit position key
+     */
+    public long getHashKey()
+    {
+        return hashKey;
+    }
+    
+    /**
+     * gets the Zobrist key of the pawns of this position alone, which keys the
+     * pawn hash table; it is maintained incrementally like the full key, and
+     * only changes when a pawn moves, is captured or promotes
+     * @return 64-bit pawn key, 0 if there are no pawns
+     */
+    public long getPawnKey()
+    {
+        return pawnKey;
+    }
+    
+    /**
+     * recomputes the pawn key of this position from scratch,
+     * used to verify the incrementally-maintained key
+     * @return 64-bit pawn key
+     */
+    public long computePawnKey()
+    {
+        long key = 0;
+        for (int square = 0; square < 64; square++)
+        {
+            if ((squares[square] != null) && (squares[square].getType() == Piece.PAWN))
+                key ^= Zobrist.pieceSquare(squares[square].getCode(),square);
+        }
+        return key;
+    }
+    
+    /**
+     * gets the middlegame piece-square score of this position, material
+     * included; like the Zobrist key, it is maintained incrementally by
+     * setPiece and removePiece, which every move goes through
+     * @return sum of PieceSquareTables.middlegame over the pieces, from white's point of view
+     */
+    public int getMiddlegameScore()
+    {
+        return middlegameScore;
+    }
+    
+    /**
+     * gets the endgame piece-square score of this position, material included
+     * @return sum of PieceSquareTables.endgame over the pieces, from white's point of view
+     */
+    public int getEndgameScore()
+    {
+        return endgameScore;
+    }
+    
+    /**
+     * gets the game phase of this position, by the pieces left on the board
+     * @return sum of PieceSquareTables.phase over the pieces: PieceSquareTables.MAX_PHASE
+     *         at the start (more after promotions), down to 0 with only pawns and kings
+     */
+    public int getPhase()
+    {
+        return phase;
+    }
+    
+    /**
+     * recomputes the Zobrist key of this position from scratch, 
+     * used to verify the incrementally-maintained key
+     * @return 64-bit position key
+     */
+    public long computeHashKey()
+    {
+        long key = 0;
+        for (int square = 0; square < 64; square++)
+        {
+            if (squares[square] != null)
+                key ^= Zobrist.pieceSquare(squares[square].getCode(),square);
+        }
+        if (sideToMove == BLACK) key ^= Zobrist.sideToMove();
+        key ^= Zobrist.castling(castlingRights);
+        key ^= Zobrist.enPassantFile(enPassantFile);
+        return key;
+    }
+    
+    public PlayerColor getSideToMove()
+    {
+        return sideToMove;
+    }
+    
+    /**
+     * sets the player to move, e.g. when setting up a position
+     * @param color player to move
+     */
+    public void setSideToMove(PlayerColor color)
+    {
+        if (color != sideToMove) hashKey ^= Zobrist.sideToMove();
+        sideToMove = color;
+    }
+    
+    public int getCastlingRights()
+    {
+        return castlingRights;
+    }
+    
+    /**
+     * sets the castling rights, e.g. when setting up a position
+     * @param rights bit-set of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE, BLACK_QUEENSIDE
+     */
+    public void setCastlingRights(int rights)
+    {
+        hashKey ^= Zobrist.castling(castlingRights);
+        castlingRights = rights & ALL_CASTLING;
+        hashKey ^= Zobrist.castling(castlingRights);
+    }
+    
+    /**
+     * gets the file of a pawn that has just moved two spaces
+     * @return 0 - 7, or -1 if the last move was not a two-space pawn move
+     */
+    public int getEnPassantFile()
+    {
+        return enPassantFile;
+    }
+    
+    /**
+     * sets the en-passant file, e.g. when setting up a position
+     * @param file 0 - 7, or -1 for none
+     */
+    public void setEnPassantFile(int file)
+    {
+        hashKey ^= Zobrist.enPassantFile(enPassantFile);
+        enPassantFile = ((file >= 0) && (file < 8)) ? file : -1;
+        hashKey ^= Zobrist.enPassantFile(enPassantFile);
+    }
+    
+    /**
+     * gets the space a pawn can be captured en-passant on: the space a pawn
+     * that has just moved two spaces passed over
+     * @return rank*8+file of the space, or -1 if the last move was not a two-space pawn move
+     */
+    public int getEnPassantSquare()
+    {
+        if (enPassantFile < 0) return -1;
+        return ((sideToMove == WHITE) ? 40 : 16) + enPassantFile;
+    }
+    
+    /**
+     * gets the number of moves since the last capture or pawn move, for the 
+     * fifty-move rule
+     * @return number of half-moves (plies)
+     */
+    public int getHalfmoveClock()
+    {
+        return halfmoveClock;
+    }
+    
+    /**
+     * sets the number of moves since the last capture or pawn move, e.g. when
+     * setting up a position
+     * @param halfmoves number of half-moves (plies)
+     */
+    public void setHalfmoveClock(int halfmoves)
+    {
+        halfmoveClock = Math.max(0,halfmoves);
+    }
+    
+    /**
+     * makes a move on this board in a way that can be taken back by unmakeMove:
+     * the game-state before the move is saved to a reused undo record, and the
+     * move places its pieces and records what it displaced
+     * @param move move to make, it must be valid for this board
+     */
+    public void makeMove(Move move)
+    {
+        UndoRecord undo   = pushUndo();
+        undo.move         = move;
+        Piece movingPiece = squares[Location.getIndex(move.getFromLocation())];
+        move.makeMove(this,undo);
+        updateHalfmoveClock(undo,movingPiece);
+    }
+    
+    /**
+     * makes a packed move (see PackedMove) on this board in a way that can be
+     * taken back by unmakeMove; no Move object is created, and the move is not
+     * added to the board's moveHistory, which records the moves of the game
+     * @param move packed move, it must be valid for this board
+     */
+    public void makeMove(int move)
+    {
+        UndoRecord undo = pushUndo();
+        undo.packedMove = move;
+        
+        int from  = PackedMove.getFrom(move);
+        int to    = PackedMove.getTo(move);
+        int flags = PackedMove.getFlags(move);
+        // an en-passant capture takes the pawn beside the moving pawn, on its rank
+        int capturedSquare = (flags == PackedMove.EN_PASSANT) ? ((from & ~7) | (to & 7)) : to;
+        
+        Piece piece = removePiece(from);
+        undo.setMovedPiece(piece);
+        undo.setCaptured(removePiece(capturedSquare),capturedSquare);
+        if ((flags & PackedMove.PROMOTION) != 0)
+            setPiece(to,Piece.of(piece.getColor(),PackedMove.getPromotionType(move)));
+        else
+            setPiece(to,piece);
+        
+        if (flags == PackedMove.KING_CASTLE)
+            setPiece(to - 1,removePiece(to + 1));
+        else if (flags == PackedMove.QUEEN_CASTLE)
+            setPiece(to + 1,removePiece(to - 2));
+        
+        completeMove(from,to,(flags == PackedMove.DOUBLE_PUSH) ? (to & 7) : -1);
+        updateHalfmoveClock(undo,piece);
+    }
+    
+    /**
+     * passes the turn without moving a piece, for the search's null-move
+     * pruning; it is taken back by unmakeMove like any other move
+     */
+    public void makeNullMove()
+    {
+        pushUndo();
+        setEnPassantFile(-1);
+        setSideToMove(GameProperties.getOpponentColor(sideToMove));
+        halfmoveClock++;
+    }
+    
+    /**
+     * takes back the most recent move made by makeMove, restoring this board
+     * exactly, including its Zobrist key
+     * @return move taken back, null if it was a packed move or no move has been made on this board
+     */
+    public Move unmakeMove()
+    {
+        if (undoCount == 0) return null;
+        UndoRecord undo = undoStack[--undoCount];
+        if (undo.move != null)
+            undo.move.unmakeMove(this,undo);
+        else if (undo.packedMove != PackedMove.NONE)
+            unmakePackedMove(undo);
+        sideToMove     = undo.sideToMove;
+        castlingRights = undo.castlingRights;
+        enPassantFile  = undo.enPassantFile;
+        halfmoveClock  = undo.halfmoveClock;
+        hashKey        = undo.hashKey;
+        
+        Move move = undo.move;
+        undo.clear();
+        return move;
+    }
+    
+    /**
+     * puts back the pieces a packed move displaced
+     * @param undo record of the move, as filled in by makeMove(int)
+     */
+    private void unmakePackedMove(UndoRecord undo)
+    {
+        int to    = PackedMove.getTo(undo.packedMove);
+        int flags = PackedMove.getFlags(undo.packedMove);
+        
+        removePiece(to);
+        if (flags == PackedMove.KING_CASTLE)
+            setPiece(to + 1,removePiece(to - 1));
+        else if (flags == PackedMove.QUEEN_CASTLE)
+            setPiece(to - 2,removePiece(to + 1));
+        
+        setPiece(PackedMove.getFrom(undo.packedMove),undo.getMovedPiece());
+        if (undo.getCapturedPiece() != null)
+            setPiece(undo.getCapturedSquare(),undo.getCapturedPiece());
+    }
+    
+    /**
+     * takes the next undo record off the stack, growing the stack if it is full,
+     * and saves the game-state a move is about to change into it
+     * @return cleared undo record holding the current game-state
+     */
+    private UndoRecord pushUndo()
+    {
+        if (undoCount == undoStack.length)
+            undoStack = Arrays.copyOf(undoStack,undoCount * 2);
+        UndoRecord undo = undoStack[undoCount];
+        if (undo == null)
+        {
+            undo = new UndoRecord();
+            undoStack[undoCount] = undo;
+        }
+        undoCount++;
+        
+        undo.clear();
+        undo.sideToMove     = sideToMove;
+        undo.castlingRights = castlingRights;
+        undo.enPassantFile  = enPassantFile;
+        undo.halfmoveClock  = halfmoveClock;
+        undo.hashKey        = hashKey;
+        return undo;
+    }
+    
+    /**
+     * resets the halfmove clock after a capture or a pawn move, and advances it otherwise
+     * @param undo record of the move just made
+     * @param movingPiece piece that made the move
+     */
+    private void updateHalfmoveClock(UndoRecord undo, Piece movingPiece)
+    {
+        if ((undo.getCapturedPiece() != null) || ((movingPiece != null) && (movingPiece.getType() == Piece.PAWN)))
+            halfmoveClock = 0;
+        else
+            halfmoveClock++;
+    }
+    
+    /**
+     * gets the number of moves made on this board that can be taken back
+     * @return number of moves on the undo stack
+     */
+    public int getUndoCount()
+    {
+        return undoCount;
+    }
+    
+    /**
+     * gets the packed move most recently made on this board, e.g. for the
+     * search's counter-move table and null-move pruning; a copy answers like
+     * the board it was copied from until a move is made on it
+     * @return packed move, NONE if no move was made, it was made as a Move object, or it was a null move
+     */
+    public int getLastPackedMove()
+    {
+        return (undoCount == 0) ? copiedLastMove : undoStack[undoCount - 1].packedMove;
+    }
+    
+    /**
+     * updates the game-state of this position once a move's pieces have been
+     * placed: castling rights are lost when a move starts or ends on a king's or
+     * rook's original space, the en-passant file is replaced, and the turn passes
+     * @param fromLocation location the moving piece left
+     * @param toLocation location the moving piece arrived at
+     * @param newEnPassantFile file of a pawn that moved two spaces, -1 otherwise
+     */
+    public void completeMove(Location fromLocation, Location toLocation, int newEnPassantFile)
+    {
+        completeMove(Location.getIndex(fromLocation),Location.getIndex(toLocation),newEnPassantFile);
+    }
+    
+    /**
+     * updates the game-state of this position once a move's pieces have been placed
+     * @param from rank*8+file the moving piece left
+     * @param to rank*8+file the moving piece arrived at
+     * @param newEnPassantFile file of a pawn that moved two spaces, -1 otherwise
+     */
+    public void completeMove(int from, int to, int newEnPassantFile)
+    {
+        setCastlingRights(castlingRights & CASTLING_MASKS[from] & CASTLING_MASKS[to]);
+        setEnPassantFile(newEnPassantFile);
+        setSideToMove(GameProperties.getOpponentColor(sideToMove));
     }
     
     /**
@@ -52,30 +511,79 @@ public class BoardState {
      */
     public boolean check(PlayerColor color)
     {
-        PlayerColor playerColor   = color;
+        int kingSquare = kingSquares[color.ordinal()];
+        if (kingSquare < 0) return false;
         
-        PieceKing kingPiece    = kings.get(playerColor);
-        Location  kingLocation = kingLocations.get(kingPiece);
-
-        return kingPiece.check(kingLocation,this);
+        Piece kingPiece = squares[kingSquare];
+        return kingPiece.check(Location.of(kingSquare),this);
+    }
+    
+    /**
+     * gets the square of a player's king
+     * @param color color of the king
+     * @return rank*8+file of the king, -1 if it is not on the board
+     */
+    public int getKingSquare(PlayerColor color)
+    {
+        return kingSquares[color.ordinal()];
+    }
+    
+    /**
+     * gets the bitboard of one kind of piece
+     * @param color color of the pieces
+     * @param type Piece.PAWN, KNIGHT, BISHOP, ROOK, QUEEN or KING
+     * @return bitboard with a bit set for each square holding such a piece
+     */
+    public long getPieces(PlayerColor color, int type)
+    {
+        return pieceBitboards[type + (6 * color.ordinal())];
+    }
+    
+    /**
+     * gets the bitboard of all pieces of one color
+     * @param color color of the pieces
+     * @return bitboard with a bit set for each square holding a piece of that color
+     */
+    public long getPieces(PlayerColor color)
+    {
+        return colorBitboards[color.ordinal()];
+    }
+    
+    /**
+     * gets the bitboard of all pieces on the board
+     * @return bitboard with a bit set for each occupied square
+     */
+    public long getOccupied()
+    {
+        return occupied;
     }
     
     /**
-     * returns a deep-copy of this board state, using this Class set,get,remove
-     * methods as an ordinary game does during regular game-play
-     * @return newly-created board state from a deep-copy of this
+     * returns a copy of this board state: pieces are shared flyweights, so the
+     * squares and bitboards are copied as arrays and the Zobrist key is carried
+     * over rather than rebuilt; the copy starts with an empty undo stack, but
+     * remembers the packed move last made (see getLastPackedMove)
+     * @return newly-created board state holding the same position
      */
     protected BoardState getCopy()
     {
         BoardState newBoardState = new BoardState();
-        for (Location location : pieceLocations.keySet())
-        {
-            Piece piece = pieceLocations.get(location);
-            Location newLocation = Location.copyOf(location);
-            Piece newPiece = Piece.copy(piece);
-            newBoardState.setPiece(newPiece,newLocation);
-        }
-        newBoardState.moveHistory = MoveHistory.createFrom(moveHistory);
+        System.arraycopy(squares,0,newBoardState.squares,0,64);
+        System.arraycopy(kingSquares,0,newBoardState.kingSquares,0,2);
+        System.arraycopy(pieceBitboards,0,newBoardState.pieceBitboards,0,12);
+        System.arraycopy(colorBitboards,0,newBoardState.colorBitboards,0,2);
+        newBoardState.occupied       = occupied;
+        newBoardState.moveHistory    = MoveHistory.createFrom(moveHistory);
+        newBoardState.sideToMove     = sideToMove;
+        newBoardState.castlingRights = castlingRights;
+        newBoardState.enPassantFile  = enPassantFile;
+        newBoardState.halfmoveClock  = halfmoveClock;
+        newBoardState.hashKey        = hashKey;
+        newBoardState.pawnKey        = pawnKey;
+        newBoardState.middlegameScore = middlegameScore;
+        newBoardState.endgameScore    = endgameScore;
+        newBoardState.phase           = phase;
+        newBoardState.copiedLastMove  = getLastPackedMove();
         return newBoardState;
     }
     
@@ -97,14 +605,18 @@ public class BoardState {
      */
     public boolean isEmpty(Location location)
     {
-        if (pieceLocations.containsKey(location))
-        {
-            if (pieceLocations.get(location) != null)
-            {
-                return false;
-            }
-        }
-        return true;
+        if (location == null) return true;
+        return (squares[Location.getIndex(location)] == null);
+    }
+    
+    /**
+     * determines whether a square on the board is empty
+     * @param square rank*8+file of the square
+     * @return true if the square is empty, false otherwise
+     */
+    public boolean isEmpty(int square)
+    {
+        return (squares[square] == null);
     }
     
     /**
@@ -114,8 +626,18 @@ public class BoardState {
      */
     public Piece getPiece(Location location)
     {
-        Piece piece = pieceLocations.get(location);
-        return piece;
+        if (location == null) return null;
+        return squares[Location.getIndex(location)];
+    }
+    
+    /**
+     * gets the piece on a square of the board
+     * @param square rank*8+file of the square
+     * @return piece on the square, if not empty, null otherwise
+     */
+    public Piece getPiece(int square)
+    {
+        return squares[square];
     }
     
     /**
@@ -125,31 +647,67 @@ public class BoardState {
      */
     public Piece removePiece(Location location)
     {
-        Piece piece = pieceLocations.remove(location);
-        if (piece != null) pieces.remove(piece);
+        return removePiece(Location.getIndex(location));
+    }
+    
+    /**
+     * removes, and returns, the piece on a square of the board
+     * @param square rank*8+file of the square
+     * @return reference to removed Piece, null if the square was empty
+     */
+    public Piece removePiece(int square)
+    {
+        Piece piece = squares[square];
+        if (piece != null)
+        {
+            squares[square] = null;
+            long squareBit = 1L << square;
+            pieceBitboards[piece.getCode()]           &= ~squareBit;
+            colorBitboards[piece.getColor().ordinal()] &= ~squareBit;
+            occupied                                   &= ~squareBit;
+            if ((piece.getType() == Piece.KING) && (kingSquares[piece.getColor().ordinal()] == square))
+                kingSquares[piece.getColor().ordinal()] = -1;
+            hashKey ^= Zobrist.pieceSquare(piece.getCode(),square);
+            if (piece.getType() == Piece.PAWN)
+                pawnKey ^= Zobrist.pieceSquare(piece.getCode(),square);
+            middlegameScore -= PieceSquareTables.middlegame(piece.getCode(),square);
+            endgameScore    -= PieceSquareTables.endgame(piece.getCode(),square);
+            phase           -= PieceSquareTables.phase(piece.getCode());
+        }
         return piece;
     }
     
     /**
-     * sets a piece to a location on the board:
-     * adds the pieces to a Set and Map keyed by Location, and
-     * creates quick-access maps to Kings based on their color, and
-     * the locations of the Kings
+     * sets a piece to a location on the board, replacing any piece already there,
+     * and keeps track of the square of each King
      * @param piece piece to set on the board
      * @param location location at which to set the piece
      */
     public void setPiece(Piece piece, Location location)
-    {        
-        if (piece instanceof PieceKing)
-        {
-            PlayerColor kingColor = ((PieceKing)piece).getColor();
-            kings.put(kingColor,(PieceKing)piece);
-            if (kingLocations.containsKey((PieceKing)piece))
-                kingLocations.replace((PieceKing)piece,location);
-            else
-                kingLocations.put((PieceKing)piece,location);
-        }
-        pieces.add(piece);
-        pieceLocations.put(location,piece);
+    {
+        setPiece(Location.getIndex(location),piece);
+    }
+    
+    /**
+     * sets a piece to a square of the board, replacing any piece already there
+     * @param square rank*8+file of the square
+     * @param piece piece to set on the board
+     */
+    public void setPiece(int square, Piece piece)
+    {
+        if (squares[square] != null) removePiece(square);
+        squares[square] = piece;
+        long squareBit = 1L << square;
+        pieceBitboards[piece.getCode()]           |= squareBit;
+        colorBitboards[piece.getColor().ordinal()] |= squareBit;
+        occupied                                   |= squareBit;
+        if (piece.getType() == Piece.KING)
+            kingSquares[piece.getColor().ordinal()] = square;
+        hashKey ^= Zobrist.pieceSquare(piece.getCode(),square);
+        if (piece.getType() == Piece.PAWN)
+            pawnKey ^= Zobrist.pieceSquare(piece.getCode(),square);
+        middlegameScore += PieceSquareTables.middlegame(piece.getCode(),square);
+        endgameScore    += PieceSquareTables.endgame(piece.getCode(),square);
+        phase           += PieceSquareTables.phase(piece.getCode());
     }
 }
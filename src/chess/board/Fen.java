@@ -0,0 +1,123 @@
+package chess.board;
+
+import chess.game.GameProperties.PlayerColor;
+import static chess.game.GameProperties.PlayerColor.BLACK;
+import static chess.game.GameProperties.PlayerColor.WHITE;
+import chess.pieces.Piece;
+import chess.pieces.PieceBishop;
+import chess.pieces.PieceKing;
+import chess.pieces.PieceKnight;
+import chess.pieces.PiecePawn;
+import chess.pieces.PieceQueen;
+import chess.pieces.PieceRook;
+
+/**
+ * Fen: sets up a BoardState from Forsyth-Edwards Notation, e.g. the start position<br>
+ * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"<br>
+ * - piece placement, from rank 8 down to rank 1, files a to h<br>
+ * - side to move, castling rights and en-passant square<br>
+ * - the halfmove clock and move number, which are optional
+ * @author devang
+ */
+public class Fen {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen()
+    {
+
+    }
+
+    /**
+     * creates a board state from a FEN string
+     * @param fen position in Forsyth-Edwards Notation
+     * @return newly-created board state holding the position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static BoardState toBoardState(String fen)
+    {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4)
+            throw new IllegalArgumentException("FEN needs at least 4 fields: " + fen);
+
+        BoardState boardState = new BoardState();
+
+        int rank = 7;
+        int file = 0;
+        for (char c : fields[0].toCharArray())
+        {
+            if (c == '/')
+            {
+                rank--;
+                file = 0;
+            }
+            else if ((c >= '1') && (c <= '8'))
+            {
+                file += c - '0';
+            }
+            else
+            {
+                if ((rank < 0) || (file > 7))
+                    throw new IllegalArgumentException("FEN piece placement overflows the board: " + fen);
+                boardState.setPiece((rank * 8) + file,createPiece(c));
+                file++;
+            }
+        }
+
+        switch (fields[1])
+        {
+            case "w":
+                boardState.setSideToMove(WHITE);
+                break;
+            case "b":
+                boardState.setSideToMove(BLACK);
+                break;
+            default:
+                throw new IllegalArgumentException("FEN side to move must be w or b: " + fen);
+        }
+
+        int rights = 0;
+        if (fields[2].indexOf('K') >= 0) rights |= BoardState.WHITE_KINGSIDE;
+        if (fields[2].indexOf('Q') >= 0) rights |= BoardState.WHITE_QUEENSIDE;
+        if (fields[2].indexOf('k') >= 0) rights |= BoardState.BLACK_KINGSIDE;
+        if (fields[2].indexOf('q') >= 0) rights |= BoardState.BLACK_QUEENSIDE;
+        boardState.setCastlingRights(rights);
+
+        if (!fields[3].equals("-"))
+            boardState.setEnPassantFile(fields[3].charAt(0) - 'a');
+
+        if (fields.length > 4)
+        {
+            try
+            {
+                boardState.setHalfmoveClock(Integer.parseInt(fields[4]));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IllegalArgumentException("FEN halfmove clock must be a number: " + fen,e);
+            }
+        }
+
+        return boardState;
+    }
+
+    /**
+     * creates the piece for a FEN piece letter
+     * @param c letter: upper-case for white, lower-case for black
+     * @return newly-created piece
+     */
+    private static Piece createPiece(char c)
+    {
+        PlayerColor color = Character.isUpperCase(c) ? WHITE : BLACK;
+        switch (Character.toLowerCase(c))
+        {
+            case 'p': return PiecePawn.create(color);
+            case 'n': return PieceKnight.create(color);
+            case 'b': return PieceBishop.create(color);
+            case 'r': return PieceRook.create(color);
+            case 'q': return PieceQueen.create(color);
+            case 'k': return PieceKing.create(color);
+            default:
+                throw new IllegalArgumentException("unknown FEN piece letter: " + c);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package chess.board;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Magics: magic-bitboard attack tables for the sliding pieces (rooks, bishops,
+ * and queens as both), so a sliding attack is one multiply, shift and lookup
+ * 
+ * for each square, the blockers that matter to a slider (its rays, less the
+ * board edge) are masked out of the occupancy, multiplied by a "magic" number
+ * and shifted down to an index into a table of precomputed attack sets
+ * 
+ * the tables are filled at class-load time from the known magic numbers below;
+ * each one is verified as its table is filled, and should one ever fail, a new
+ * one is found by trial from a fixed seed (which is how these were found)
+ * 
+ * generation time is measured, and logged as a warning if it exceeds
+ * GENERATION_BUDGET_MILLIS
+ * @author devang
+ */
+public class Magics {
+    public static final long GENERATION_BUDGET_MILLIS = 250;
+    
+    private static final long[] KNOWN_ROOK_MAGICS = {
+        0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+        0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+        0x0000800080204001L, 0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+        0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+        0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+        0x0001818014000800L, 0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+        0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+        0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+        0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+        0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L, 0x8004048102000854L,
+        0x4420802040008006L, 0x0880500020004002L, 0x0801200241050010L, 0x8400080010008080L,
+        0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+        0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+        0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+        0x8044110480002441L, 0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+        0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+    
+    private static final long[] KNOWN_BISHOP_MAGICS = {
+        0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L, 0x000220920280002DL,
+        0x32040421000B0284L, 0x1002080404000400L, 0x0004160892080040L, 0x2203024206204201L,
+        0x0002404264010200L, 0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+        0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L, 0x0010050080908820L,
+        0x0C90A04490824802L, 0x000200A008210130L, 0x0C08001000204010L, 0x0008000186014480L,
+        0x0601044820080021L, 0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+        0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L, 0x2020120000400440L,
+        0x0108840200802003L, 0x0009070082009492L, 0x020C0C0038424245L, 0xCA44005808210410L,
+        0x8011212000500404L, 0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+        0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L, 0x0242061040002400L,
+        0x90020202400821A0L, 0x00C9009004E01002L, 0x58C2060202023100L, 0x0000012214040800L,
+        0x0210846810100200L, 0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+        0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L, 0x2080001042020004L,
+        0x0544021020288104L, 0x1103501408083020L, 0x4010451004960002L, 0x003010091C44902CL,
+        0x0102402884202000L, 0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+        0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L, 0x0045010808008680L
+    };
+    
+    private static final int[][] ROOK_DIRECTIONS   = { {1,0}, {-1,0}, {0,1}, {0,-1} };
+    private static final int[][] BISHOP_DIRECTIONS = { {1,1}, {1,-1}, {-1,1}, {-1,-1} };
+    
+    private static final long[]   ROOK_MASKS     = new long[64];
+    private static final long[]   ROOK_MAGICS    = new long[64];
+    private static final int[]    ROOK_SHIFTS    = new int[64];
+    private static final long[][] ROOK_ATTACKS   = new long[64][];
+    private static final long[]   BISHOP_MASKS   = new long[64];
+    private static final long[]   BISHOP_MAGICS  = new long[64];
+    private static final int[]    BISHOP_SHIFTS  = new int[64];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+    
+    private static final long generationNanos;
+    private static long seed = 0x2545F4914F6CDD1DL;
+    
+    static
+    {
+        long startTime = System.nanoTime();
+        for (int square = 0; square < 64; square++)
+        {
+            initSquare(square,KNOWN_ROOK_MAGICS[square],ROOK_DIRECTIONS,
+                       ROOK_MASKS,ROOK_MAGICS,ROOK_SHIFTS,ROOK_ATTACKS);
+            initSquare(square,KNOWN_BISHOP_MAGICS[square],BISHOP_DIRECTIONS,
+                       BISHOP_MASKS,BISHOP_MAGICS,BISHOP_SHIFTS,BISHOP_ATTACKS);
+        }
+        generationNanos = System.nanoTime() - startTime;
+        
+        if (getGenerationMillis() > GENERATION_BUDGET_MILLIS)
+        {
+            String loggerMsg = "magic bitboard generation took " + getGenerationMillis()
+                             + "ms, over its budget of " + GENERATION_BUDGET_MILLIS + "ms";
+            Logger.getLogger(Magics.class.getName()).log(Level.WARNING,loggerMsg);
+        }
+    }
+    
+    private Magics()
+    {
+        
+    }
+    
+    /**
+     * gets the time it took to generate the magic tables
+     * @return milliseconds spent at class-load time
+     */
+    public static long getGenerationMillis()
+    {
+        return generationNanos / 1000000L;
+    }
+    
+    /**
+     * gets the squares a rook attacks
+     * @param square rank*8+file of the rook
+     * @param occupied bitboard of all pieces on the board
+     * @return bitboard of attacked squares, up to and including the first piece on each ray
+     */
+    public static long rook(int square, long occupied)
+    {
+        int index = (int)(((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_ATTACKS[square][index];
+    }
+    
+    /**
+     * gets the squares a bishop attacks
+     * @param square rank*8+file of the bishop
+     * @param occupied bitboard of all pieces on the board
+     * @return bitboard of attacked squares, up to and including the first piece on each ray
+     */
+    public static long bishop(int square, long occupied)
+    {
+        int index = (int)(((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_ATTACKS[square][index];
+    }
+    
+    /**
+     * fills the attack table of one slider on one square, trying the known
+     * magic number first and searching for another only if it fails
+     */
+    private static void initSquare(int square, long knownMagic, int[][] directions,
+                                   long[] masks, long[] magics, int[] shifts, long[][] attacks)
+    {
+        long mask = relevantMask(square,directions);
+        int  bits = Long.bitCount(mask);
+        int  size = 1 << bits;
+        
+        // every subset of the mask (carry-rippler enumeration) and its true attack set
+        long[] occupancies   = new long[size];
+        long[] references    = new long[size];
+        long   occupancy     = 0;
+        for (int index = 0; index < size; index++)
+        {
+            occupancies[index] = occupancy;
+            references[index]  = slidingAttacks(square,occupancy,directions);
+            occupancy = (occupancy - mask) & mask;
+        }
+        
+        long[] table = new long[size];
+        int[]  epoch = new int[size];
+        int    attempt = 0;
+        long   magic;
+        boolean found;
+        do
+        {
+            attempt++;
+            if (attempt == 1)
+            {
+                magic = knownMagic;
+                found = true;
+            }
+            else
+            {
+                magic = nextSparseRandom();
+                found = (Long.bitCount((mask * magic) & 0xFF00000000000000L) >= 6);
+            }
+            for (int index = 0; found && (index < size); index++)
+            {
+                int tableIndex = (int)((occupancies[index] * magic) >>> (64 - bits));
+                if (epoch[tableIndex] < attempt)
+                {
+                    epoch[tableIndex] = attempt;
+                    table[tableIndex] = references[index];
+                }
+                else if (table[tableIndex] != references[index])
+                {
+                    found = false;
+                }
+            }
+        } while (!found);
+        
+        masks[square]   = mask;
+        magics[square]  = magic;
+        shifts[square]  = 64 - bits;
+        attacks[square] = table;
+    }
+    
+    /**
+     * gets the squares whose occupancy can change a slider's attacks: its rays,
+     * less the last square of each ray, since that square is attacked either way
+     */
+    private static long relevantMask(int square, int[][] directions)
+    {
+        long mask = 0;
+        for (int[] direction : directions)
+        {
+            int file = (square & 7) + direction[0];
+            int rank = (square >> 3) + direction[1];
+            while (onBoard(file + direction[0],rank + direction[1]))
+            {
+                mask |= 1L << ((rank * 8) + file);
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * walks each ray one square at a time, used only to build the tables
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions)
+    {
+        long attacks = 0;
+        for (int[] direction : directions)
+        {
+            int file = (square & 7) + direction[0];
+            int rank = (square >> 3) + direction[1];
+            while (onBoard(file,rank))
+            {
+                long squareBit = 1L << ((rank * 8) + file);
+                attacks |= squareBit;
+                if ((occupied & squareBit) != 0) break;
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+        return attacks;
+    }
+    
+    private static boolean onBoard(int file, int rank)
+    {
+        return (file >= 0) && (file < 8) && (rank >= 0) && (rank < 8);
+    }
+    
+    /**
+     * xorshift64* pseudo-random generator, ANDed three times since magic
+     * numbers with few bits set are found far more quickly
+     */
+    private static long nextSparseRandom()
+    {
+        return nextRandom() & nextRandom() & nextRandom();
+    }
+    
+    private static long nextRandom()
+    {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+}
@@ -0,0 +1,460 @@
+package chess.board;
+
+import chess.game.GameProperties;
+import chess.game.GameProperties.PlayerColor;
+import static chess.game.GameProperties.PlayerColor.WHITE;
+import chess.moves.Move;
+import chess.moves.PackedMove;
+import chess.moves.PackedMoveList;
+import chess.pieces.Piece;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MoveGenerator: generates only legal moves, without making a move to test it
+ *
+ * the pieces giving check, and the pieces pinned to their king, are found once
+ * per position; from them:<br>
+ * - in double check, only the king moves<br>
+ * - in single check, other pieces may only capture the checker or block its ray
+ *   (the check mask)<br>
+ * - a pinned piece may only move along the line through its king and pinner<br>
+ * - the king may only move to squares not attacked once it has left its square<br>
+ * - en-passant, which removes two pieces from one rank, is tested by recomputing
+ *   the attacks on the king with both pawns gone<br>
+ *
+ * moves are generated packed (see PackedMove) into a PackedMoveList; the
+ * List of Move objects the game uses is converted from it
+ *
+ * the older path, in which each Piece generates its moves and tests every one
+ * by making it on the board, is kept selectable (see setMode) so the two can
+ * be cross-checked by perft
+ * @author devang
+ */
+public class MoveGenerator {
+
+    public enum Mode {
+        LEGAL,
+        MAKE_AND_TEST
+    }
+
+    // kinds of move to generate, for staged generation (see MovePicker)
+    public static final int CAPTURES = 1;   // captures, en-passant and promotions
+    public static final int QUIETS   = 2;   // every other move, castling included
+    public static final int ALL      = CAPTURES | QUIETS;
+
+    private static final int[] PROMOTION_TYPES = {
+        Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT
+    };
+
+    private static final long RANK_1 = 0x00000000000000FFL;
+    private static final long RANK_8 = 0xFF00000000000000L;
+
+    private static volatile Mode mode = Mode.LEGAL;
+
+    private MoveGenerator()
+    {
+
+    }
+
+    /**
+     * gets which move generator BoardState.getValidMoves uses
+     * @return LEGAL, or MAKE_AND_TEST for the per-piece generators
+     */
+    public static Mode getMode()
+    {
+        return mode;
+    }
+
+    /**
+     * selects which move generator BoardState.getValidMoves uses
+     * @param newMode LEGAL, or MAKE_AND_TEST for the per-piece generators
+     */
+    public static void setMode(Mode newMode)
+    {
+        mode = (newMode == null) ? Mode.LEGAL : newMode;
+    }
+
+    /**
+     * gets every legal move of one player
+     * @param boardState state of the board to generate moves for
+     * @param color player whose moves to generate
+     * @return List of legal moves, empty if the player cannot move
+     */
+    public static List<Move> generate(BoardState boardState, PlayerColor color)
+    {
+        return generate(boardState,color,~0L);
+    }
+
+    /**
+     * gets the legal moves of the pieces of one player that stand on the given squares
+     * @param boardState state of the board to generate moves for
+     * @param color player whose moves to generate
+     * @param fromSquares bitboard of the squares whose pieces may move
+     * @return List of legal moves, empty if none of those pieces can move
+     */
+    public static List<Move> generate(BoardState boardState, PlayerColor color, long fromSquares)
+    {
+        PackedMoveList packedMoves = new PackedMoveList();
+        generate(boardState,color,fromSquares,packedMoves);
+        List<Move> moves = new ArrayList<>(packedMoves.size());
+        for (int index = 0; index < packedMoves.size(); index++)
+            moves.add(PackedMove.toMove(packedMoves.get(index)));
+        return moves;
+    }
+
+    /**
+     * appends every legal move of one player, packed, to a list
+     * @param boardState state of the board to generate moves for
+     * @param color player whose moves to generate
+     * @param moves list to append the moves to
+     */
+    public static void generate(BoardState boardState, PlayerColor color, PackedMoveList moves)
+    {
+        generate(boardState,color,~0L,moves);
+    }
+
+    /**
+     * appends the legal moves, packed, of the pieces of one player that stand
+     * on the given squares to a list
+     * @param boardState state of the board to generate moves for
+     * @param color player whose moves to generate
+     * @param fromSquares bitboard of the squares whose pieces may move
+     * @param moves list to append the moves to
+     */
+    public static void generate(BoardState boardState, PlayerColor color, long fromSquares, PackedMoveList moves)
+    {
+        generate(boardState,color,fromSquares,ALL,moves);
+    }
+
+    /**
+     * appends the legal captures and promotions, packed, of one player to a list
+     * @param boardState state of the board to generate moves for
+     * @param color player whose moves to generate
+     * @param moves list to append the moves to
+     */
+    public static void generateCaptures(BoardState boardState, PlayerColor color, PackedMoveList moves)
+    {
+        generate(boardState,color,~0L,CAPTURES,moves);
+    }
+
+    /**
+     * appends the legal moves, packed, of one player that neither capture nor promote
+     * @param boardState state of the board to generate moves for
+     * @param color player whose moves to generate
+     * @param moves list to append the moves to
+     */
+    public static void generateQuiets(BoardState boardState, PlayerColor color, PackedMoveList moves)
+    {
+        generate(boardState,color,~0L,QUIETS,moves);
+    }
+
+    /**
+     * determines if a packed move is legal in a position, e.g. a move from the
+     * transposition table or a killer move found in another position; only the
+     * moves of the piece on the move's from-square are generated to find it
+     * @param boardState state of the board
+     * @param color player to move
+     * @param move packed move to test
+     * @return true if the move can be made
+     */
+    public static boolean isLegal(BoardState boardState, PlayerColor color, int move)
+    {
+        if (move == PackedMove.NONE) return false;
+        MoveStack      moveStack = MoveStack.get();
+        PackedMoveList moves     = moveStack.push();
+        generate(boardState,color,1L << PackedMove.getFrom(move),ALL,moves);
+        boolean legal = (moves.indexOf(move) >= 0);
+        moveStack.pop();
+        return legal;
+    }
+
+    /**
+     * appends the legal moves of the given kinds, packed, of the pieces of one
+     * player that stand on the given squares to a list
+     * @param boardState state of the board to generate moves for
+     * @param color player whose moves to generate
+     * @param fromSquares bitboard of the squares whose pieces may move
+     * @param kinds CAPTURES, QUIETS or ALL
+     * @param moves list to append the moves to
+     */
+    public static void generate(BoardState boardState, PlayerColor color, long fromSquares, int kinds, PackedMoveList moves)
+    {
+        int kingSquare = boardState.getKingSquare(color);
+        if (kingSquare < 0) return;
+
+        PlayerColor opponentColor = GameProperties.getOpponentColor(color);
+        long own      = boardState.getPieces(color);
+        long enemy    = boardState.getPieces(opponentColor);
+        long occupied = boardState.getOccupied();
+
+        long checkers = attackersOf(boardState,kingSquare,color,occupied);
+
+        // squares the generated moves may land on: the opponent's for captures, empty ones for quiet moves
+        long kindTargets = (((kinds & CAPTURES) != 0) ? enemy : 0) | (((kinds & QUIETS) != 0) ? ~occupied : 0);
+
+        if ((fromSquares & (1L << kingSquare)) != 0)
+            addKingMoves(boardState,color,kingSquare,own | ~kindTargets,occupied,moves);
+
+        // in double check only the king can move
+        if (Long.bitCount(checkers) > 1) return;
+
+        long checkMask = ~0L;
+        if (checkers != 0)
+        {
+            int checkerSquare = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | Attacks.between(kingSquare,checkerSquare);
+        }
+
+        long pinned = pinnedPieces(boardState,color,kingSquare,own,enemy,occupied);
+
+        long pieces = own & fromSquares & ~(1L << kingSquare);
+        long pawns  = pieces & boardState.getPieces(color,Piece.PAWN);
+        pieces &= ~pawns;
+        while (pieces != 0)
+        {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            long targets;
+            switch (boardState.getPiece(from).getType())
+            {
+                case Piece.KNIGHT:
+                    targets = Attacks.knight(from);
+                    break;
+                case Piece.BISHOP:
+                    targets = Attacks.bishop(from,occupied);
+                    break;
+                case Piece.ROOK:
+                    targets = Attacks.rook(from,occupied);
+                    break;
+                default:
+                    targets = Attacks.queen(from,occupied);
+                    break;
+            }
+            targets &= ~own & checkMask & kindTargets;
+            if ((pinned & (1L << from)) != 0)
+                targets &= Attacks.line(kingSquare,from);
+            addMoves(boardState,from,targets,moves);
+        }
+
+        addPawnMoves(boardState,color,kingSquare,pawns,enemy,occupied,checkMask,pinned,kinds,moves);
+
+        if ((checkers == 0) && ((fromSquares & (1L << kingSquare)) != 0) && ((kinds & QUIETS) != 0))
+            addCastleMoves(boardState,color,kingSquare,occupied,moves);
+    }
+
+    /**
+     * determines if a player has any legal move, e.g. to test for the end of
+     * the game; the moves are generated into the calling thread's MoveStack, so
+     * nothing is allocated
+     * @param boardState state of the board to test
+     * @param color player to test
+     * @return true if the player can move
+     */
+    public static boolean hasLegalMove(BoardState boardState, PlayerColor color)
+    {
+        MoveStack moveStack = MoveStack.get();
+        boolean   canMove   = !moveStack.push(boardState,color).isEmpty();
+        moveStack.pop();
+        return canMove;
+    }
+
+    /**
+     * gets the opponent's pieces attacking a square
+     * @param boardState state of the board
+     * @param square rank*8+file of the square attacked
+     * @param color color of the player defending the square
+     * @param occupied bitboard of the pieces that block sliding attacks
+     * @return bitboard of the opponent's pieces attacking the square
+     */
+    private static long attackersOf(BoardState boardState, int square, PlayerColor color, long occupied)
+    {
+        PlayerColor opponentColor = GameProperties.getOpponentColor(color);
+        long queens = boardState.getPieces(opponentColor,Piece.QUEEN);
+        return (Attacks.pawn(color,square)          & boardState.getPieces(opponentColor,Piece.PAWN))
+             | (Attacks.knight(square)              & boardState.getPieces(opponentColor,Piece.KNIGHT))
+             | (Attacks.king(square)                & boardState.getPieces(opponentColor,Piece.KING))
+             | (Attacks.bishop(square,occupied)     & (boardState.getPieces(opponentColor,Piece.BISHOP) | queens))
+             | (Attacks.rook(square,occupied)       & (boardState.getPieces(opponentColor,Piece.ROOK) | queens));
+    }
+
+    /**
+     * gets the pieces of one player pinned to their king: the only piece
+     * standing between the king and an opponent's slider on the same line
+     * @param boardState state of the board
+     * @param color color of the king
+     * @param kingSquare rank*8+file of the king
+     * @param own bitboard of the king's side
+     * @param enemy bitboard of the opponent's pieces
+     * @param occupied bitboard of all pieces
+     * @return bitboard of pinned pieces
+     */
+    private static long pinnedPieces(BoardState boardState, PlayerColor color, int kingSquare, long own, long enemy, long occupied)
+    {
+        PlayerColor opponentColor = GameProperties.getOpponentColor(color);
+        long queens  = boardState.getPieces(opponentColor,Piece.QUEEN);
+        long snipers = (Attacks.rook(kingSquare,enemy)   & (boardState.getPieces(opponentColor,Piece.ROOK) | queens))
+                     | (Attacks.bishop(kingSquare,enemy) & (boardState.getPieces(opponentColor,Piece.BISHOP) | queens));
+
+        long pinned = 0;
+        while (snipers != 0)
+        {
+            int sniperSquare = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(kingSquare,sniperSquare) & occupied;
+            if ((Long.bitCount(blockers) == 1) && ((blockers & own) != 0))
+                pinned |= blockers;
+        }
+        return pinned;
+    }
+
+    /**
+     * adds the king's moves to squares that are not attacked with the king
+     * lifted off the board, so it cannot step back along a checking ray
+     */
+    private static void addKingMoves(BoardState boardState, PlayerColor color, int kingSquare, long excluded, long occupied, PackedMoveList moves)
+    {
+        long targets     = Attacks.king(kingSquare) & ~excluded;
+        long withoutKing = occupied & ~(1L << kingSquare);
+        while (targets != 0)
+        {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (attackersOf(boardState,to,color,withoutKing) == 0)
+                addMove(boardState,kingSquare,to,moves);
+        }
+    }
+
+    /**
+     * adds the castling moves allowed by the castling rights: the squares
+     * between king and rook must be empty, and the king must not be in check
+     * (tested by the caller) nor pass over or land on an attacked square
+     */
+    private static void addCastleMoves(BoardState boardState, PlayerColor color, int kingSquare, long occupied, PackedMoveList moves)
+    {
+        int  rights    = boardState.getCastlingRights();
+        int  homeRank  = (color == WHITE) ? 0 : 56;
+        int  kingside  = (color == WHITE) ? BoardState.WHITE_KINGSIDE  : BoardState.BLACK_KINGSIDE;
+        int  queenside = (color == WHITE) ? BoardState.WHITE_QUEENSIDE : BoardState.BLACK_QUEENSIDE;
+        long rooks     = boardState.getPieces(color,Piece.ROOK);
+        if (kingSquare != homeRank + 4) return;
+
+        if (((rights & kingside) != 0) && ((rooks & (1L << (homeRank + 7))) != 0)
+            && ((occupied & Attacks.between(kingSquare,homeRank + 7)) == 0)
+            && (attackersOf(boardState,homeRank + 5,color,occupied) == 0)
+            && (attackersOf(boardState,homeRank + 6,color,occupied) == 0))
+        {
+            moves.add(PackedMove.create(kingSquare,homeRank + 6,PackedMove.KING_CASTLE));
+        }
+
+        if (((rights & queenside) != 0) && ((rooks & (1L << homeRank)) != 0)
+            && ((occupied & Attacks.between(kingSquare,homeRank)) == 0)
+            && (attackersOf(boardState,homeRank + 3,color,occupied) == 0)
+            && (attackersOf(boardState,homeRank + 2,color,occupied) == 0))
+        {
+            moves.add(PackedMove.create(kingSquare,homeRank + 2,PackedMove.QUEEN_CASTLE));
+        }
+    }
+
+    /**
+     * adds the pawns' pushes, captures, promotions and en-passant captures;
+     * pushes onto the last rank promote, so they are generated with the captures
+     */
+    private static void addPawnMoves(BoardState boardState, PlayerColor color, int kingSquare, long pawns, long enemy,
+                                     long occupied, long checkMask, long pinned, int kinds, PackedMoveList moves)
+    {
+        int  forward   = (color == WHITE) ? 8 : -8;
+        long startRank = (color == WHITE) ? (RANK_1 << 8) : (RANK_8 >>> 8);
+        long lastRank  = (color == WHITE) ? RANK_8 : RANK_1;
+
+        long kindTargets;
+        if (kinds == CAPTURES)    kindTargets = enemy | lastRank;
+        else if (kinds == QUIETS) kindTargets = ~occupied & ~lastRank;
+        else                      kindTargets = ~0L;
+
+        int  enPassantFile   = boardState.getEnPassantFile();
+        int  enPassantSquare = -1;
+        if (enPassantFile >= 0)
+            enPassantSquare = ((color == WHITE) ? 40 : 16) + enPassantFile;
+
+        while (pawns != 0)
+        {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            long targets = 0;
+            int  oneStep = from + forward;
+            if ((occupied & (1L << oneStep)) == 0)
+            {
+                targets |= 1L << oneStep;
+                if (((startRank & (1L << from)) != 0) && ((occupied & (1L << (oneStep + forward))) == 0))
+                    targets |= 1L << (oneStep + forward);
+            }
+            targets |= Attacks.pawn(color,from) & enemy;
+            targets &= checkMask & kindTargets;
+            if ((pinned & (1L << from)) != 0)
+                targets &= Attacks.line(kingSquare,from);
+
+            while (targets != 0)
+            {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if ((lastRank & (1L << to)) != 0)
+                {
+                    boolean capture = (enemy & (1L << to)) != 0;
+                    for (int pieceType : PROMOTION_TYPES)
+                        moves.add(PackedMove.createPromotion(from,to,pieceType,capture));
+                }
+                else if (Math.abs(to - from) == 16)
+                {
+                    moves.add(PackedMove.create(from,to,PackedMove.DOUBLE_PUSH));
+                }
+                else
+                {
+                    addMove(boardState,from,to,moves);
+                }
+            }
+
+            if ((enPassantSquare >= 0) && ((kinds & CAPTURES) != 0) && ((Attacks.pawn(color,from) & (1L << enPassantSquare)) != 0))
+                addEnPassantMove(boardState,color,kingSquare,from,enPassantSquare,enPassantSquare - forward,occupied,moves);
+        }
+    }
+
+    /**
+     * adds an en-passant capture if the king is not attacked once both pawns
+     * have left their squares and the capturing pawn has arrived: this covers
+     * the pin along the rank both pawns stand on, which the pin mask misses
+     */
+    private static void addEnPassantMove(BoardState boardState, PlayerColor color, int kingSquare, int from, int to,
+                                         int captureSquare, long occupied, PackedMoveList moves)
+    {
+        long after = (occupied & ~(1L << from) & ~(1L << captureSquare)) | (1L << to);
+        if ((attackersOf(boardState,kingSquare,color,after) & ~(1L << captureSquare)) != 0) return;
+        moves.add(PackedMove.create(from,to,PackedMove.EN_PASSANT));
+    }
+
+    /**
+     * adds a move from one square to each of a set of target squares
+     */
+    private static void addMoves(BoardState boardState, int from, long targets, PackedMoveList moves)
+    {
+        while (targets != 0)
+        {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            addMove(boardState,from,to,moves);
+        }
+    }
+
+    /**
+     * adds a regular move, or a capture if the target square is occupied
+     */
+    private static void addMove(BoardState boardState, int from, int to, PackedMoveList moves)
+    {
+        if (boardState.isEmpty(to))
+            moves.add(PackedMove.create(from,to,PackedMove.QUIET));
+        else
+            moves.add(PackedMove.create(from,to,PackedMove.CAPTURE));
+    }
+}
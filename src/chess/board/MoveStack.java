@@ -0,0 +1,106 @@
+package chess.board;
+
+import chess.game.GameProperties.PlayerColor;
+import chess.moves.PackedMoveList;
+import java.util.Arrays;
+
+/**
+ * MoveStack: an arena of preallocated move lists, one per ply, for recursive
+ * move generation (search, perft, game-over checks) that creates no objects
+ * once it has warmed up
+ *
+ * push() hands out the cleared list of the next ply, which the MoveGenerator
+ * fills in place; pop() rewinds to the ply before, alongside the unmakeMove
+ * that takes the position back, so the list is refilled by the next sibling;
+ * a list is only allocated the first time a ply deeper than any before is
+ * reached
+ *
+ * a MoveStack is not thread-safe: each thread uses its own, from get()
+ * @author devang
+ */
+public class MoveStack {
+    public static final int DEFAULT_PLIES = 128;
+    
+    private static final ThreadLocal<MoveStack> STACKS = ThreadLocal.withInitial(() -> new MoveStack(DEFAULT_PLIES));
+    
+    private PackedMoveList[] plies;
+    private int              ply;
+    
+    /**
+     * constructor
+     * @param maxPlies number of plies to preallocate lists for; deeper plies are added when reached
+     */
+    public MoveStack(int maxPlies)
+    {
+        plies = new PackedMoveList[Math.max(1,maxPlies)];
+        for (int index = 0; index < plies.length; index++)
+            plies[index] = new PackedMoveList();
+        ply = 0;
+    }
+    
+    /**
+     * gets the move stack of the calling thread
+     * @return this thread's MoveStack
+     */
+    public static MoveStack get()
+    {
+        return STACKS.get();
+    }
+    
+    /**
+     * gets the number of lists in use
+     * @return number of pushes not yet popped
+     */
+    public int getPly()
+    {
+        return ply;
+    }
+    
+    /**
+     * takes the list of the next ply, cleared, for the moves of a new position
+     * @return empty move list, owned by the caller until the matching pop()
+     */
+    public PackedMoveList push()
+    {
+        if (ply == plies.length)
+        {
+            plies = Arrays.copyOf(plies,ply * 2);
+            for (int index = ply; index < plies.length; index++)
+                plies[index] = new PackedMoveList();
+        }
+        PackedMoveList moves = plies[ply++];
+        moves.clear();
+        return moves;
+    }
+    
+    /**
+     * generates the legal moves of one player into the list of the next ply
+     * @param boardState state of the board to generate moves for
+     * @param color player whose moves to generate
+     * @return list of the moves, owned by the caller until the matching pop()
+     */
+    public PackedMoveList push(BoardState boardState, PlayerColor color)
+    {
+        PackedMoveList moves = push();
+        MoveGenerator.generate(boardState,color,moves);
+        return moves;
+    }
+    
+    /**
+     * gives back the list of the most recent push(), rewinding to the ply before it
+     */
+    public void pop()
+    {
+        if (ply > 0) ply--;
+    }
+    
+    /**
+     * rewinds to a ply from getPly(), giving back every list pushed since;
+     * e.g. when a search is abandoned part-way down a line
+     * @param toPly ply to rewind to
+     */
+    public void rewind(int toPly)
+    {
+        ply = Math.max(0,Math.min(ply,toPly));
+    }
+}
@@ -0,0 +1,104 @@
+package chess.board;
+
+import chess.game.GameProperties.PlayerColor;
+import chess.moves.Move;
+import chess.pieces.Piece;
+
+/**
+ * compact record of what a made move (a Move object, a packed move when move
+ * is null, or a null move when neither is set) changed on a BoardState,
+ * enough to take the move back: the pieces it displaced, and the game-state
+ * (castling rights, en-passant file, halfmove clock, side to move and
+ * Zobrist key) from before it; records are kept in a stack by the BoardState
+ * and reused, so making a move does not allocate
+ * @author devang
+ */
+public class UndoRecord {
+    
+    Move        move;
+    int         packedMove;
+    PlayerColor sideToMove;
+    int         castlingRights;
+    int         enPassantFile;
+    int         halfmoveClock;
+    long        hashKey;
+    
+    private Piece movedPiece;
+    private Piece capturedPiece;
+    private int   capturedSquare;
+    
+    UndoRecord()
+    {
+        clear();
+    }
+    
+    /**
+     * resets the pieces of this record before it is reused for another move
+     */
+    final void clear()
+    {
+        move           = null;
+        packedMove     = 0;
+        movedPiece     = null;
+        capturedPiece  = null;
+        capturedSquare = -1;
+    }
+    
+    /**
+     * gets the move this record takes back
+     * @return move that was made
+     */
+    public Move getMove()
+    {
+        return move;
+    }
+    
+    /**
+     * gets the piece that left the from-square, needed by moves that replace
+     * it with another piece (pawn promotion)
+     * @return moving piece, null if not recorded
+     */
+    public Piece getMovedPiece()
+    {
+        return movedPiece;
+    }
+    
+    /**
+     * records the piece that left the from-square
+     * @param piece moving piece
+     */
+    public void setMovedPiece(Piece piece)
+    {
+        movedPiece = piece;
+    }
+    
+    /**
+     * gets the piece taken by the move
+     * @return captured piece, null if the move captured nothing
+     */
+    public Piece getCapturedPiece()
+    {
+        return capturedPiece;
+    }
+    
+    /**
+     * gets the square the captured piece was taken from, which differs from
+     * the move's destination for en-passant
+     * @return rank*8+file of the captured piece, -1 if the move captured nothing
+     */
+    public int getCapturedSquare()
+    {
+        return capturedSquare;
+    }
+    
+    /**
+     * records the piece taken by the move
+     * @param piece captured piece, may be null
+     * @param square rank*8+file the piece was taken from
+     */
+    public void setCaptured(Piece piece, int square)
+    {
+        capturedPiece  = piece;
+        capturedSquare = (piece != null) ? square : -1;
+    }
+}
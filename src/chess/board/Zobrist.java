@@ -0,0 +1,97 @@
+package chess.board;
+
+/**
+ * Zobrist hashing keys: one random 64-bit number per (piece, square) pair,
+ * per castling-rights combination, per en-passant file, and for the side to move
+ * 
+ * the key of a position is the XOR of the numbers of everything in it, so a
+ * BoardState updates its key incrementally: XOR a number in when something is
+ * added, and XOR the same number again when it is removed
+ * 
+ * numbers are generated from a fixed seed so keys are identical between runs
+ * @author devang
+ */
+public class Zobrist {
+    private static final long[][] PIECE_SQUARE    = new long[12][64];
+    private static final long[]   CASTLING        = new long[16];
+    private static final long[]   EN_PASSANT_FILE = new long[8];
+    private static final long     SIDE_TO_MOVE;
+    
+    private static long seed = 0x9E3779B97F4A7C15L;
+    
+    static
+    {
+        for (int piece = 0; piece < 12; piece++)
+        {
+            for (int square = 0; square < 64; square++)
+                PIECE_SQUARE[piece][square] = nextRandom();
+        }
+        for (int rights = 0; rights < 16; rights++)
+            CASTLING[rights] = nextRandom();
+        for (int file = 0; file < 8; file++)
+            EN_PASSANT_FILE[file] = nextRandom();
+        SIDE_TO_MOVE = nextRandom();
+        
+        // no castling rights hash to zero, so a board with no rights set
+        // has the same key as its pieces alone
+        CASTLING[0] = 0;
+    }
+    
+    private Zobrist()
+    {
+        
+    }
+    
+    /**
+     * xorshift64* pseudo-random generator
+     * @return next random 64-bit number
+     */
+    private static long nextRandom()
+    {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+    
+    /**
+     * gets the key of a piece standing on a square
+     * @param pieceCode 0 - 11, see Piece.getCode
+     * @param square 0 - 63, rank*8+file
+     * @return 64-bit key
+     */
+    public static long pieceSquare(int pieceCode, int square)
+    {
+        return PIECE_SQUARE[pieceCode][square];
+    }
+    
+    /**
+     * gets the key of a set of castling rights
+     * @param castlingRights bit-set of BoardState castling constants
+     * @return 64-bit key
+     */
+    public static long castling(int castlingRights)
+    {
+        return CASTLING[castlingRights & 15];
+    }
+    
+    /**
+     * gets the key of an en-passant file
+     * @param file 0 - 7, or -1 if there is no en-passant file
+     * @return 64-bit key, 0 if there is no en-passant file
+     */
+    public static long enPassantFile(int file)
+    {
+        if (file < 0) return 0;
+        return EN_PASSANT_FILE[file];
+    }
+    
+    /**
+     * gets the key XORed in when black is to move
+     * @return 64-bit key
+     */
+    public static long sideToMove()
+    {
+        return SIDE_TO_MOVE;
+    }
+}
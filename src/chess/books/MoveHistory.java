@@ -3,20 +3,41 @@ package chess.books;
 import chess.moves.Move;
 
 /**
- * MoveHistory to encapsulate a MoveList, and used for a currently-playing game,
- * copy-constructor option, access to a deep-copy, initialize an online move list
+ * MoveHistory to encapsulate a list of Moves, and used for a currently-playing game,
+ * copy-constructor option, access to a copy, initialize an online move list
  * 
  * allows reading a history from file, writing a history to a file
  * 
+ * the list is persistent: each entry points back to the one before it, and a
+ * copy shares the entries of its original, so copying a history costs the same
+ * however long the game has run; Moves are not changed once made, so sharing
+ * them between copies is safe
+ * 
  * @author devang
  */
 public class MoveHistory {
 
-    private MoveList moveList;
+    /**
+     * one entry of the history: a move, and the history before it
+     */
+    private static final class Entry {
+        private final Move  move;
+        private final Entry previous;
+        private final int   size;
+        
+        private Entry(Move move, Entry previous)
+        {
+            this.move     = move;
+            this.previous = previous;
+            this.size     = (previous == null) ? 1 : previous.size + 1;
+        }
+    }
+    
+    private Entry last;
     
     private MoveHistory()
     {
-        moveList = new MoveList();
+        last = null;
     }
     
     /**
@@ -25,8 +46,7 @@ public class MoveHistory {
      */
     public boolean isEmpty()
     {
-        if (moveList.getSize() == 0) return true;
-        return false;
+        return (last == null);
     }
     
     /**
@@ -35,7 +55,8 @@ public class MoveHistory {
      */
     public int getSize()
     {
-        return moveList.getSize();
+        if (last == null) return 0;
+        return last.size;
     }
     
     /**
@@ -44,7 +65,10 @@ public class MoveHistory {
      */
     public Move[] asArray()
     {
-        return moveList.asArray();
+        Move[] moves = new Move[getSize()];
+        for (Entry entry = last; entry != null; entry = entry.previous)
+            moves[entry.size - 1] = entry.move;
+        return moves;
     }
     
     /**
@@ -53,7 +77,8 @@ public class MoveHistory {
      */
     public void add(Move move)
     {
-        moveList.add(move);
+        if (move == null) return;
+        last = new Entry(move,last);
     }
     
     /**
@@ -62,16 +87,21 @@ public class MoveHistory {
      */
     public Move getLast()
     {
-        return moveList.getLast();
+        if (last == null) return null;
+        return last.move;
     }
     
     /**
-     * removes and returns the last Move in this Move History
+     * removes and returns the last Move in this Move History;
+     * copies of this history are not affected
      * @return Move object at the end of this list, null if list is empty
      */
     public Move removeLast()
     {
-        return moveList.removeLast();
+        if (last == null) return null;
+        Move lastMove = last.move;
+        last = last.previous;
+        return lastMove;
     }
     
     public void writeToFile()
@@ -85,13 +115,13 @@ public class MoveHistory {
     }
     
     /**
-     * Deep-Copy of this MoveHistory
+     * Copy of this MoveHistory, sharing its entries
      * @return newly-created copy of this MoveHistory
      */
     private MoveHistory getCopy()
     {
         MoveHistory newHistory = new MoveHistory();
-        newHistory.moveList = moveList.getCopy();
+        newHistory.last = last;
         return newHistory;
     }
     
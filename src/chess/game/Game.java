@@ -9,6 +9,7 @@ import chess.moves.Move;
 import chess.moves.MovePromotion;
 import chess.network.NetworkClient;
 import chess.players.Player;
+import java.awt.GraphicsEnvironment;
 import javax.swing.JOptionPane;
 
 /**
@@ -33,6 +34,7 @@ public class Game {
     {
         game.board.initPieces();
         game.playerManager.initializePlayersAIGame();
+        game.playerManager.getActivePlayer().startTurn();
     }
     public static void startNetworkGame(PlayerColor color, NetworkClient client)
     {
@@ -45,7 +47,10 @@ public class Game {
         playerManager = new PlayerManager();
         board = new BoardManager();
         gameManager = new GameManager();
-        graphicsBoard = new GraphicsBoard();
+        // no board window without a display, so the game's state can still be
+        // used headless (e.g. by benchmarks)
+        if (!GraphicsEnvironment.isHeadless())
+            graphicsBoard = new GraphicsBoard();
     }
     
     public static Game getActiveGame()
@@ -4,10 +4,8 @@ import chess.board.BoardState;
 import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
 import chess.moves.MovePromotion;
-import chess.pieces.Piece;
 import chess.players.Player;
-import chess.utility.Location;
-import java.util.List;
+import chess.players.PlayerHuman;
 import javax.swing.JOptionPane;
 
 /**
@@ -39,10 +37,10 @@ public class GameManager {
         if (player != currentPlayer)      return;
         if (move == null)                 return;
         
-        if (move instanceof MovePromotion)
+        if ((move instanceof MovePromotion) && (player instanceof PlayerHuman))
         {
             MovePromotion.PieceType pieceType = pawnPromotionMenu();
-            ((MovePromotion)move).setNewPieceType(pieceType);
+            move = ((MovePromotion)move).withNewPieceType(pieceType);
         }
         
         // move.commitMove(currentBoardState);
@@ -56,6 +54,10 @@ public class GameManager {
         {
             if (gameOverWindow()) terminate();
         }
+        else
+        {
+            playerManager.getActivePlayer().startTurn();
+        }
     }
         
     protected void terminate()
@@ -100,27 +102,11 @@ public class GameManager {
      */
     public boolean checkGameOver()
     {
-        boolean validMovePossible = false;
-
-        BoardState boardState = BoardState.copy(Game.getBoardState());
+        BoardState boardState = Game.getBoardState();
         PlayerManager playerManager = Game.getPlayerManager();
         PlayerColor currentPlayerColor = playerManager.getActivePlayerColor();
         
-        for (Location location : Location.allLocations())
-        {
-            if (!boardState.isEmpty(location))
-            {
-                Piece piece = boardState.getPiece(location);
-                if (piece.getColor() == currentPlayerColor)
-                {
-                    List<Move> moves = piece.getValidMoves(location,boardState);
-                    if (moves.size() > 0)
-                        validMovePossible = true;
-                }
-            }
-        }
-
-        return !validMovePossible;
+        return !boardState.hasValidMove(currentPlayerColor);
     }
     
     
@@ -64,7 +64,7 @@ public class PlayerManager {
         
         players[0]         = Player.newHumanPlayer(humanPlayerColor);
         GraphicsBoard gui = Game.getGraphicsBoard();
-        ((PlayerHuman)(players[1])).setGui(gui);
+        ((PlayerHuman)(players[0])).setGui(gui);
         players[1]         = Player.newCPUPlayer(CPUPlayerColor);
     }
     
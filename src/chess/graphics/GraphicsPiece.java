@@ -1,9 +1,7 @@
 package chess.graphics;
 
 import chess.game.GameProperties;
-import static chess.game.GameProperties.PlayerColor.BLACK;
-import static chess.game.GameProperties.PlayerColor.WHITE;
-import chess.pieces.*;
+import chess.pieces.Piece;
 import chess.utility.Location;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
@@ -66,22 +64,6 @@ public class GraphicsPiece {
     
     private BufferedImage getImage(Piece piece)
     {
-        String pieceColor = "";
-        if (piece.getColor() == WHITE) pieceColor = "white";
-        if (piece.getColor() == BLACK) pieceColor = "black";
-        BufferedImage img = null;
-        if (piece instanceof PieceBishop)
-            img = GraphicsSprites.getPieceImage("bishop",pieceColor);
-        if (piece instanceof PieceKing)
-            img = GraphicsSprites.getPieceImage("king",pieceColor);
-        if (piece instanceof PieceKnight)
-            img = GraphicsSprites.getPieceImage("knight",pieceColor);
-        if (piece instanceof PiecePawn)
-            img = GraphicsSprites.getPieceImage("pawn",pieceColor);
-        if (piece instanceof PieceQueen)
-            img = GraphicsSprites.getPieceImage("queen",pieceColor);
-        if (piece instanceof PieceRook)
-            img = GraphicsSprites.getPieceImage("rook",pieceColor);
-        return img;
+        return GraphicsSprites.getPieceImage(piece);
     }
 }
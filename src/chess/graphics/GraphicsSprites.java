@@ -1,5 +1,6 @@
 package chess.graphics;
 
+import chess.pieces.Piece;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.HashMap;
@@ -12,7 +13,28 @@ import javax.imageio.ImageIO;
 public class GraphicsSprites {
     private final static GraphicsSprites sprites = new GraphicsSprites();
     private final static String GRAPHICS_FILE_ROOT = "chess2D/";
+    // sprite file names of each piece type, indexed by Piece.getType
+    private final static String[] PIECE_TYPE_NAMES = { "pawn", "knight", "bishop", "rook", "queen", "king" };
+    private final static String[] PIECE_COLOR_NAMES = { "white", "black" };
     private final HashMap<String,BufferedImage> pieceImages;
+    // images of each piece, indexed by Piece.getCode, loaded on first use
+    private final BufferedImage[] pieceCodeImages;
+    
+    /**
+     * gets the sprite of a piece, by its code rather than by its class
+     * @param piece piece to draw
+     * @return image of the piece, null if it could not be loaded
+     */
+    public static BufferedImage getPieceImage(Piece piece)
+    {
+        int code = piece.getCode();
+        if (sprites.pieceCodeImages[code] == null)
+        {
+            sprites.pieceCodeImages[code] = getPieceImage(PIECE_TYPE_NAMES[piece.getType()],
+                                                          PIECE_COLOR_NAMES[piece.getColor().ordinal()]);
+        }
+        return sprites.pieceCodeImages[code];
+    }
     
     public static BufferedImage getPieceImage(String pieceType,String pieceColor)
     {
@@ -31,6 +53,7 @@ public class GraphicsSprites {
     private GraphicsSprites()
     {
         pieceImages = new HashMap<>();
+        pieceCodeImages = new BufferedImage[12];
     }
     
     private static String getPieceFilename(String pieceType, String pieceColor)
@@ -1,6 +1,7 @@
 package chess.moves;
 
 import chess.board.BoardState;
+import chess.board.UndoRecord;
 import chess.moves.MovePromotion.PieceType;
 import chess.utility.Location;
 import java.io.Serializable;
@@ -14,8 +15,8 @@ import java.io.Serializable;
  */
 public abstract class Move implements Serializable {
     protected final String move;
-    public abstract void commitMove(BoardState boardState);
     public abstract Location getToLocation();
+    public abstract Location getFromLocation();
     public abstract Move getCopy();
     
     public static Move create(String move)
@@ -33,57 +34,74 @@ public abstract class Move implements Serializable {
         this.move = move;
     }
     
+    /**
+     * places the pieces of this move on the board state in the argument, 
+     * records the pieces it displaces in the undo record, and updates the 
+     * board's and pieces' move histories; called by BoardState.makeMove
+     * @param boardState state of a board on which to make this move
+     * @param undo record of this move, to be passed back to unmakeMove
+     */
+    public abstract void makeMove(BoardState boardState, UndoRecord undo);
+    
+    /**
+     * restores the pieces, and move histories, that makeMove changed; 
+     * called by BoardState.unmakeMove, which restores the rest of the game-state
+     * @param boardState state of a board on which this move was made
+     * @param undo record of this move, as filled in by makeMove
+     */
+    public abstract void unmakeMove(BoardState boardState, UndoRecord undo);
+    
+    /**
+     * commits this Move to the board state in the argument; the move
+     * can be taken back with BoardState.unmakeMove
+     * @param boardState state of a board of a game against to which to apply this move
+     */
+    public void commitMove(BoardState boardState)
+    {
+        boardState.makeMove(this);
+    }
+    
+    /**
+     * gets the String representation of this move, e.g. "e2e4"
+     * @return from-square followed by to-square
+     */
+    @Override
+    public String toString()
+    {
+        return move;
+    }
+    
     public static MoveRegular createRegular(Location fromLocation, Location toLocation)
     {
-        String move = "";
-        move+=Location.getFile(fromLocation);
-        move+=Location.getRank(fromLocation);
-        move+=Location.getFile(toLocation);
-        move+=Location.getRank(toLocation);
+        String move = Location.getName(fromLocation) + Location.getName(toLocation);
         
         return new MoveRegular(move,fromLocation,toLocation);
     }
     
     public static MoveCapture createCapture(Location fromLocation, Location toLocation, Location captureLocation)
     {
-        String move = "";
-        move+=Location.getFile(fromLocation);
-        move+=Location.getRank(fromLocation);
-        move+=Location.getFile(toLocation);
-        move+=Location.getRank(toLocation);
+        String move = Location.getName(fromLocation) + Location.getName(toLocation);
         
         return new MoveCapture(move,fromLocation,toLocation,captureLocation);
     }
     
     public static MoveEnPassant createEnPassant(Location fromLocation, Location toLocation, Location captureLocation)
     {
-        String move = "";
-        move+=Location.getFile(fromLocation);
-        move+=Location.getRank(fromLocation);
-        move+=Location.getFile(toLocation);
-        move+=Location.getRank(toLocation);
+        String move = Location.getName(fromLocation) + Location.getName(toLocation);
         
         return new MoveEnPassant(move,fromLocation,toLocation,captureLocation);
     }
     
     public static MovePromotion createPromotion(Location fromLocation, Location toLocation, PieceType newPiece)
     {
-        String move = "";
-        move+=Location.getFile(fromLocation);
-        move+=Location.getRank(fromLocation);
-        move+=Location.getFile(toLocation);
-        move+=Location.getRank(toLocation);
+        String move = Location.getName(fromLocation) + Location.getName(toLocation);
         
         return new MovePromotion(move,newPiece,fromLocation,toLocation);
     }
     
     public static MoveCastle createCastle(Location kingFrom,Location kingTo,Location rookFrom,Location rookTo)
     {
-        String move = "";
-        move+=Location.getFile(kingFrom);
-        move+=Location.getRank(kingFrom);
-        move+=Location.getFile(kingTo);
-        move+=Location.getRank(kingTo);
+        String move = Location.getName(kingFrom) + Location.getName(kingTo);
         
         return new MoveCastle(move,kingFrom,kingTo,rookFrom,rookTo);
     }
@@ -1,6 +1,7 @@
 package chess.moves;
 
 import chess.board.BoardState;
+import chess.board.UndoRecord;
 import chess.pieces.Piece;
 import chess.utility.Location;
 import java.io.Serializable;
@@ -43,27 +44,41 @@ public class MoveCapture extends Move implements Serializable {
      * gets the destination of the Piece in this move
      * @return new Location for piece
      */
+    @Override
     public Location getFromLocation()
     {
         return fromLocation;
     }
     
     /**
-     * commits this Move to the board state in the argument
-     * @param boardState state of a board of a game against to which to apply this move
+     * makes this Move on the board state in the argument
+     * @param boardState state of a board on which to make this move
+     * @param undo record of this move, receives the captured piece
      */
     @Override
-    public void commitMove(BoardState boardState)
+    public void makeMove(BoardState boardState, UndoRecord undo)
     {
-        Piece piece = boardState.getPiece(fromLocation);
-        Piece capturedPiece = null;
-        boardState.removePiece(fromLocation);
-        if (!boardState.isEmpty(toLocation))
-            capturedPiece = boardState.removePiece(toLocation);
+        Piece piece         = boardState.removePiece(fromLocation);
+        Piece capturedPiece = boardState.removePiece(toLocation);
+        undo.setCaptured(capturedPiece,Location.getIndex(toLocation));
         boardState.setPiece(piece,toLocation);
+        boardState.completeMove(fromLocation,toLocation,-1);
         boardState.moveHistory.add(this);
-        piece.history.add(this);
+    }
+    
+    /**
+     * takes this Move back from the board state in the argument
+     * @param boardState state of a board on which this move was made
+     * @param undo record of this move
+     */
+    @Override
+    public void unmakeMove(BoardState boardState, UndoRecord undo)
+    {
+        Piece piece         = boardState.removePiece(toLocation);
+        Piece capturedPiece = undo.getCapturedPiece();
+        boardState.setPiece(piece,fromLocation);
+        boardState.moveHistory.removeLast();
         if (capturedPiece != null)
-            capturedPiece.history.add(this);
+            boardState.setPiece(undo.getCapturedSquare(),capturedPiece);
     }
 }
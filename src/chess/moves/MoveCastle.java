@@ -1,6 +1,7 @@
 package chess.moves;
 
 import chess.board.BoardState;
+import chess.board.UndoRecord;
 import chess.pieces.Piece;
 import chess.utility.Location;
 import java.io.Serializable;
@@ -42,20 +43,43 @@ public class MoveCastle extends Move implements Serializable {
     }
     
     /**
-     * commits this castling move to the board state in the argument
-     * @param boardState state of a board of a game against to which to apply this move
+     * gets the original location of the moving piece in this Move
+     * @return origin Location
      */
     @Override
-    public void commitMove(BoardState boardState)
+    public Location getFromLocation()
     {
-        Piece kingPiece = boardState.getPiece(kingFromLocation);
-        Piece rookPiece = boardState.getPiece(rookFromLocation);
-        boardState.removePiece(kingFromLocation);
-        boardState.removePiece(rookFromLocation);
+        return kingFromLocation;
+    }
+    
+    /**
+     * makes this castling move on the board state in the argument
+     * @param boardState state of a board on which to make this move
+     * @param undo record of this move
+     */
+    @Override
+    public void makeMove(BoardState boardState, UndoRecord undo)
+    {
+        Piece kingPiece = boardState.removePiece(kingFromLocation);
+        Piece rookPiece = boardState.removePiece(rookFromLocation);
         boardState.setPiece(kingPiece,kingToLocation);
         boardState.setPiece(rookPiece,rookToLocation);
+        boardState.completeMove(kingFromLocation,kingToLocation,-1);
         boardState.moveHistory.add(this);
-        kingPiece.history.add(this);
-        rookPiece.history.add(this);
+    }
+    
+    /**
+     * takes this castling move back from the board state in the argument
+     * @param boardState state of a board on which this move was made
+     * @param undo record of this move
+     */
+    @Override
+    public void unmakeMove(BoardState boardState, UndoRecord undo)
+    {
+        Piece kingPiece = boardState.removePiece(kingToLocation);
+        Piece rookPiece = boardState.removePiece(rookToLocation);
+        boardState.setPiece(kingPiece,kingFromLocation);
+        boardState.setPiece(rookPiece,rookFromLocation);
+        boardState.moveHistory.removeLast();
     }
 }
@@ -1,6 +1,7 @@
 package chess.moves;
 
 import chess.board.BoardState;
+import chess.board.UndoRecord;
 import chess.pieces.Piece;
 import chess.utility.Location;
 import java.io.Serializable;
@@ -40,18 +41,43 @@ public class MoveEnPassant extends Move implements Serializable {
     }
     
     /**
-     * commits this en-passant Move to the board state in the argument
-     * @param boardState state of a board of a game against to which to apply this move
+     * gets the original location of the moving piece in this Move
+     * @return origin Location
      */
     @Override
-    public void commitMove(BoardState boardState)
+    public Location getFromLocation()
     {
-        Piece piece = boardState.getPiece(fromLocation);
+        return fromLocation;
+    }
+    
+    /**
+     * makes this en-passant Move on the board state in the argument
+     * @param boardState state of a board on which to make this move
+     * @param undo record of this move, receives the captured pawn
+     */
+    @Override
+    public void makeMove(BoardState boardState, UndoRecord undo)
+    {
+        Piece piece         = boardState.removePiece(fromLocation);
         Piece capturedPiece = boardState.removePiece(captureLocation);
-        boardState.removePiece(fromLocation);
+        undo.setCaptured(capturedPiece,Location.getIndex(captureLocation));
         boardState.setPiece(piece,toLocation);
+        boardState.completeMove(fromLocation,toLocation,-1);
         boardState.moveHistory.add(this);
-        piece.history.add(this);
-        capturedPiece.history.add(this);
+    }
+    
+    /**
+     * takes this en-passant Move back from the board state in the argument
+     * @param boardState state of a board on which this move was made
+     * @param undo record of this move
+     */
+    @Override
+    public void unmakeMove(BoardState boardState, UndoRecord undo)
+    {
+        Piece piece         = boardState.removePiece(toLocation);
+        Piece capturedPiece = undo.getCapturedPiece();
+        boardState.setPiece(piece,fromLocation);
+        boardState.setPiece(undo.getCapturedSquare(),capturedPiece);
+        boardState.moveHistory.removeLast();
     }
 }
@@ -1,7 +1,7 @@
 package chess.moves;
 
 import chess.board.BoardState;
-import chess.books.MoveHistory;
+import chess.board.UndoRecord;
 import chess.game.GameProperties.PlayerColor;
 import chess.pieces.Piece;
 import chess.pieces.PieceBishop;
@@ -17,7 +17,7 @@ import java.io.Serializable;
  */
 public class MovePromotion extends Move implements Serializable {
     
-    private PieceType newPieceType;
+    private final PieceType newPieceType;
     private final Location fromLocation;
     private final Location toLocation;
     
@@ -37,9 +37,41 @@ public class MovePromotion extends Move implements Serializable {
         toLocation   = Location.copyOf(to);
     }
     
-    public void setNewPieceType(PieceType pieceType)
+    /**
+     * gets a copy of this move that promotes to another piece; the move
+     * itself is not changed, as it may already be recorded in a MoveHistory
+     * @param pieceType piece to promote to
+     * @return new MovePromotion with the same squares
+     */
+    public MovePromotion withNewPieceType(PieceType pieceType)
+    {
+        return new MovePromotion(move,pieceType,fromLocation,toLocation);
+    }
+    
+    /**
+     * gets the type of piece the pawn is promoted to
+     * @return QUEEN, BISHOP, KNIGHT or ROOK
+     */
+    public PieceType getNewPieceType()
     {
-        newPieceType = pieceType;
+        return newPieceType;
+    }
+    
+    /**
+     * gets the String representation of this move, with the promoted-to piece 
+     * appended, e.g. "e7e8q"
+     * @return from-square, to-square and piece letter
+     */
+    @Override
+    public String toString()
+    {
+        switch (newPieceType)
+        {
+            case BISHOP: return move + "b";
+            case KNIGHT: return move + "n";
+            case ROOK:   return move + "r";
+            default:     return move + "q";
+        }
     }
     
     @Override
@@ -59,15 +91,26 @@ public class MovePromotion extends Move implements Serializable {
     }
     
     /**
-     * commits this pawn-promoting Move to the board state in the argument
-     * @param boardState state of a board of a game against to which to apply this move
+     * gets the original location of the moving piece in this Move
+     * @return origin Location
+     */
+    @Override
+    public Location getFromLocation()
+    {
+        return fromLocation;
+    }
+    
+    /**
+     * makes this pawn-promoting Move on the board state in the argument
+     * @param boardState state of a board on which to make this move
+     * @param undo record of this move, receives the pawn and any captured piece
      */
     @Override
-    public void commitMove(BoardState boardState)
+    public void makeMove(BoardState boardState, UndoRecord undo)
     {
-        Piece oldPiece         = boardState.getPiece(fromLocation);
+        Piece oldPiece         = boardState.removePiece(fromLocation);
         Piece newPiece         = null;
-        Piece capturedPiece    = null;
+        Piece capturedPiece    = boardState.removePiece(toLocation);
         PlayerColor pieceColor = oldPiece.getColor();
 
         switch (newPieceType)
@@ -88,17 +131,30 @@ public class MovePromotion extends Move implements Serializable {
                 newPiece = PieceQueen.create(pieceColor);
                 break;
         }
-        newPiece.history = MoveHistory.createFrom(oldPiece.history);
         
-        if (!boardState.isEmpty(toLocation))
-            capturedPiece = boardState.removePiece(toLocation);
-        boardState.removePiece(fromLocation);
+        undo.setMovedPiece(oldPiece);
+        undo.setCaptured(capturedPiece,Location.getIndex(toLocation));
         boardState.setPiece(newPiece,toLocation);
+        boardState.completeMove(fromLocation,toLocation,-1);
         boardState.moveHistory.add(this);
-        oldPiece.history.add(this);
-        newPiece.history.add(this);
+    }
+    
+    /**
+     * takes this pawn-promoting Move back from the board state in the argument,
+     * replacing the promoted piece with the original pawn
+     * @param boardState state of a board on which this move was made
+     * @param undo record of this move
+     */
+    @Override
+    public void unmakeMove(BoardState boardState, UndoRecord undo)
+    {
+        Piece oldPiece      = undo.getMovedPiece();
+        Piece capturedPiece = undo.getCapturedPiece();
+        boardState.removePiece(toLocation);
+        boardState.setPiece(oldPiece,fromLocation);
+        boardState.moveHistory.removeLast();
         if (capturedPiece != null)
-            capturedPiece.history.add(this);
+            boardState.setPiece(undo.getCapturedSquare(),capturedPiece);
     }
 
 }
@@ -0,0 +1,159 @@
+package chess.moves;
+
+import chess.moves.MovePromotion.PieceType;
+import chess.pieces.Piece;
+import chess.utility.Location;
+
+/**
+ * PackedMove: a move encoded in the low 16 bits of an int, used by the move
+ * generator, search and perft in place of Move objects<br>
+ * - bits 0 - 5:   from-square, rank*8+file<br>
+ * - bits 6 - 11:  to-square, rank*8+file<br>
+ * - bits 12 - 15: flags, one of QUIET, DOUBLE_PUSH, KING_CASTLE, QUEEN_CASTLE,
+ *   CAPTURE, EN_PASSANT, or PROMOTION + the promoted piece (0 knight,
+ *   1 bishop, 2 rook, 3 queen), plus CAPTURE if the promotion captures<br>
+ *
+ * no legal move packs to 0, so 0 (NONE) stands for no move; the low 12 bits
+ * are the from + 64 * to code the transposition table has always used
+ *
+ * Moves made by a player still go through the Move classes: toMove converts
+ * the packed moves of the List<Move> generator API and the move Search returns
+ * @author devang
+ */
+public class PackedMove {
+    public static final int NONE         = 0;
+    
+    public static final int QUIET        = 0;
+    public static final int DOUBLE_PUSH  = 1;
+    public static final int KING_CASTLE  = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE      = 4;
+    public static final int EN_PASSANT   = 5;
+    public static final int PROMOTION    = 8;
+    
+    private static final PieceType[] PROMOTION_TYPES = {
+        PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN
+    };
+    private static final String PROMOTION_LETTERS = "nbrq";
+    
+    private PackedMove()
+    {
+    
+    }
+    
+    /**
+     * packs a move
+     * @param from rank*8+file the piece leaves
+     * @param to rank*8+file the piece arrives at
+     * @param flags QUIET, DOUBLE_PUSH, KING_CASTLE, QUEEN_CASTLE, CAPTURE, EN_PASSANT or a promotion
+     * @return packed move
+     */
+    public static int create(int from, int to, int flags)
+    {
+        return from | (to << 6) | (flags << 12);
+    }
+    
+    /**
+     * packs a promotion
+     * @param from rank*8+file the pawn leaves
+     * @param to rank*8+file the pawn arrives at
+     * @param pieceType Piece.KNIGHT, BISHOP, ROOK or QUEEN
+     * @param capture true if the promotion captures a piece
+     * @return packed move
+     */
+    public static int createPromotion(int from, int to, int pieceType, boolean capture)
+    {
+        int flags = PROMOTION | (pieceType - Piece.KNIGHT);
+        if (capture) flags |= CAPTURE;
+        return create(from,to,flags);
+    }
+    
+    public static int getFrom(int move)
+    {
+        return move & 0x3F;
+    }
+    
+    public static int getTo(int move)
+    {
+        return (move >>> 6) & 0x3F;
+    }
+    
+    public static int getFlags(int move)
+    {
+        return (move >>> 12) & 0xF;
+    }
+    
+    /**
+     * determines if a move takes a piece, including en-passant and capturing promotions
+     * @param move packed move
+     * @return true if the move captures
+     */
+    public static boolean isCapture(int move)
+    {
+        return (getFlags(move) & CAPTURE) != 0;
+    }
+    
+    public static boolean isPromotion(int move)
+    {
+        return (getFlags(move) & PROMOTION) != 0;
+    }
+    
+    public static boolean isCastle(int move)
+    {
+        int flags = getFlags(move);
+        return (flags == KING_CASTLE) || (flags == QUEEN_CASTLE);
+    }
+    
+    /**
+     * gets the piece a pawn promotes to
+     * @param move packed promotion
+     * @return Piece.KNIGHT, BISHOP, ROOK or QUEEN
+     */
+    public static int getPromotionType(int move)
+    {
+        return Piece.KNIGHT + (getFlags(move) & 3);
+    }
+    
+    /**
+     * gets the String representation of a move, as Move.toString gives it
+     * @param move packed move
+     * @return from-square followed by to-square, and the promotion letter, e.g. "e7e8q"
+     */
+    public static String toString(int move)
+    {
+        String name = Location.getName(Location.of(getFrom(move))) + Location.getName(Location.of(getTo(move)));
+        if (isPromotion(move))
+            name += PROMOTION_LETTERS.charAt(getFlags(move) & 3);
+        return name;
+    }
+    
+    /**
+     * converts a packed move to the Move object that makes it
+     * @param move packed move
+     * @return newly-created Move, null for NONE
+     */
+    public static Move toMove(int move)
+    {
+        if (move == NONE) return null;
+        int      flags        = getFlags(move);
+        Location fromLocation = Location.of(getFrom(move));
+        Location toLocation   = Location.of(getTo(move));
+        
+        if ((flags & PROMOTION) != 0)
+            return Move.createPromotion(fromLocation,toLocation,PROMOTION_TYPES[flags & 3]);
+        
+        switch (flags)
+        {
+            case KING_CASTLE:
+                return Move.createCastle(fromLocation,toLocation,Location.of(getTo(move) + 1),Location.of(getTo(move) - 1));
+            case QUEEN_CASTLE:
+                return Move.createCastle(fromLocation,toLocation,Location.of(getTo(move) - 2),Location.of(getTo(move) + 1));
+            case CAPTURE:
+                return Move.createCapture(fromLocation,toLocation,toLocation);
+            case EN_PASSANT:
+                return Move.createEnPassant(fromLocation,toLocation,Location.of(Location.getCol(toLocation),Location.getRow(fromLocation)));
+            default:
+                return Move.createRegular(fromLocation,toLocation);
+        }
+    }
+}
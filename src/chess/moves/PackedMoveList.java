@@ -0,0 +1,101 @@
+package chess.moves;
+
+import java.util.Arrays;
+
+/**
+ * PackedMoveList: a growable list of packed moves (see PackedMove) held in an
+ * int array, so filling and reading it creates no objects; a list is meant
+ * to be cleared and refilled rather than replaced
+ * @author devang
+ */
+public class PackedMoveList {
+    // no chess position has more than 218 legal moves
+    public static final int DEFAULT_CAPACITY = 256;
+    
+    private int[] moves;
+    private int   size;
+    
+    public PackedMoveList()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public PackedMoveList(int capacity)
+    {
+        moves = new int[Math.max(1,capacity)];
+        size  = 0;
+    }
+    
+    public int size()
+    {
+        return size;
+    }
+    
+    public boolean isEmpty()
+    {
+        return (size == 0);
+    }
+    
+    public void clear()
+    {
+        size = 0;
+    }
+    
+    /**
+     * appends a packed move
+     * @param move packed move
+     */
+    public void add(int move)
+    {
+        if (size == moves.length)
+            moves = Arrays.copyOf(moves,size * 2);
+        moves[size++] = move;
+    }
+    
+    public int get(int index)
+    {
+        return moves[index];
+    }
+    
+    public void set(int index, int move)
+    {
+        moves[index] = move;
+    }
+    
+    /**
+     * exchanges two moves, e.g. while ordering the list
+     * @param i index of one move
+     * @param j index of the other
+     */
+    public void swap(int i, int j)
+    {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+    }
+    
+    /**
+     * finds a move in the list
+     * @param move packed move
+     * @return index of the move, -1 if it is not in the list
+     */
+    public int indexOf(int move)
+    {
+        for (int index = 0; index < size; index++)
+        {
+            if (moves[index] == move) return index;
+        }
+        return -1;
+    }
+    
+    /**
+     * moves the move at an index to the front of the list, keeping the order of the others
+     * @param index index of the move
+     */
+    public void moveToFront(int index)
+    {
+        int move = moves[index];
+        System.arraycopy(moves,0,moves,1,index);
+        moves[0] = move;
+    }
+}
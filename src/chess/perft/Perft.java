@@ -0,0 +1,323 @@
+package chess.perft;
+
+import chess.board.BoardState;
+import chess.board.Fen;
+import chess.board.MoveGenerator;
+import chess.board.MoveStack;
+import chess.moves.Move;
+import chess.moves.PackedMoveList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft: counts the leaf nodes of the move tree of a position to a fixed depth,
+ * which checks move generation against published counts and measures its speed
+ *
+ * options:<br>
+ * - bulk counting: at depth 1 the moves are counted rather than made<br>
+ * - a PerftTable: sub-tree counts are reused when positions transpose<br>
+ * - a ForkJoinPool: each root move is counted by its own task, on its own
+ *   copy of the board<br>
+ * - divide: the count is reported for each root move, to find which sub-tree
+ *   differs from a reference count<br>
+ * with the LEGAL generator the tree is walked with packed moves (see PackedMove)
+ * held in the thread's MoveStack, with MAKE_AND_TEST with the Move objects of
+ * the per-piece generators<br>
+ *
+ * run headless with: java -cp build/classes chess.perft.Perft [options]<br>
+ * -fen "fen"     position to count, instead of the reference positions<br>
+ * -depth n       depth to count to, instead of each position's reference depth<br>
+ * -divide        report the count of each root move<br>
+ * -nobulk        make every leaf move instead of counting them<br>
+ * -hash mb       use a PerftTable of this many megabytes<br>
+ * -threads n     split the root moves across n threads<br>
+ * -mode m        legal (default) or make-and-test, see MoveGenerator.Mode
+ * @author devang
+ */
+public class Perft {
+
+    /**
+     * published perft counts (depths 1 - 6) of standard reference positions
+     */
+    private static final Object[][] REFERENCE_POSITIONS = {
+        { "start",     Fen.START_POSITION,
+          new long[] { 20, 400, 8902, 197281, 4865609, 119060324L },            5 },
+        { "kiwipete",  "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+          new long[] { 48, 2039, 97862, 4085603, 193690690L, 8031647685L },     4 },
+        { "position3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+          new long[] { 14, 191, 2812, 43238, 674624, 11030083 },                5 },
+        { "position4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+          new long[] { 6, 264, 9467, 422333, 15833292, 706045033L },           4 },
+        { "position5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+          new long[] { 44, 1486, 62379, 2103487, 89941194L },                  4 },
+        { "position6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+          new long[] { 46, 2079, 89890, 3894594, 164075551L, 6923051137L },     4 }
+    };
+
+    private final boolean    bulkCounting;
+    private final PerftTable table;
+
+    /**
+     * constructor: bulk counting, no hash table
+     */
+    public Perft()
+    {
+        this(true,null);
+    }
+
+    /**
+     * constructor
+     * @param bulkCounting count the moves at depth 1 rather than making them
+     * @param table table of sub-tree counts, null for none
+     */
+    public Perft(boolean bulkCounting, PerftTable table)
+    {
+        this.bulkCounting = bulkCounting;
+        this.table        = table;
+    }
+
+    /**
+     * counts the leaf nodes of a position's move tree; moves are made and
+     * taken back on the board, which is left as it was found
+     * @param boardState position to count, with its side to move
+     * @param depth number of plies to count to
+     * @return number of leaf nodes
+     */
+    public long count(BoardState boardState, int depth)
+    {
+        if (depth == 0) return 1;
+
+        long key = boardState.getHashKey();
+        if (table != null)
+        {
+            long count = table.probe(key,depth);
+            if (count >= 0) return count;
+        }
+
+        long count = 0;
+        if (MoveGenerator.getMode() == MoveGenerator.Mode.LEGAL)
+        {
+            MoveStack      moveStack = MoveStack.get();
+            PackedMoveList moves     = moveStack.push(boardState,boardState.getSideToMove());
+            if (bulkCounting && (depth == 1))
+            {
+                count = moves.size();
+            }
+            else
+            {
+                for (int index = 0; index < moves.size(); index++)
+                {
+                    boardState.makeMove(moves.get(index));
+                    count += count(boardState,depth - 1);
+                    boardState.unmakeMove();
+                }
+            }
+            moveStack.pop();
+        }
+        else
+        {
+            List<Move> moves = boardState.getValidMoves(boardState.getSideToMove());
+            if (bulkCounting && (depth == 1))
+            {
+                count = moves.size();
+            }
+            else
+            {
+                for (Move move : moves)
+                {
+                    boardState.makeMove(move);
+                    count += count(boardState,depth - 1);
+                    boardState.unmakeMove();
+                }
+            }
+        }
+
+        if (table != null) table.store(key,depth,count);
+        return count;
+    }
+
+    /**
+     * counts the leaf nodes under each root move, in parallel if a pool is given
+     * @param boardState position to count, with its side to move
+     * @param depth number of plies to count to, at least 1
+     * @param pool pool to count the root moves in, null to count them in this thread
+     * @return count of each root move, keyed by the move's String, in generation order
+     */
+    public Map<String,Long> divide(BoardState boardState, int depth, ForkJoinPool pool)
+    {
+        List<Move> moves = boardState.getValidMoves(boardState.getSideToMove());
+        Map<String,Long> counts = new LinkedHashMap<>();
+
+        if (pool == null)
+        {
+            for (Move move : moves)
+            {
+                boardState.makeMove(move);
+                counts.put(move.toString(),count(boardState,depth - 1));
+                boardState.unmakeMove();
+            }
+            return counts;
+        }
+
+        List<RootMoveTask> tasks = new ArrayList<>();
+        for (Move move : moves)
+            tasks.add(new RootMoveTask(BoardState.copy(boardState),move,depth - 1));
+        for (RootMoveTask task : tasks)
+            pool.execute(task);
+        for (RootMoveTask task : tasks)
+            counts.put(task.move.toString(),task.join());
+        return counts;
+    }
+
+    /**
+     * counts the leaf nodes of a position's move tree, in parallel if a pool is given
+     * @param boardState position to count, with its side to move
+     * @param depth number of plies to count to
+     * @param pool pool to count the root moves in, null to count in this thread
+     * @return number of leaf nodes
+     */
+    public long count(BoardState boardState, int depth, ForkJoinPool pool)
+    {
+        if ((pool == null) || (depth < 2)) return count(boardState,depth);
+        long count = 0;
+        for (long moveCount : divide(boardState,depth,pool).values())
+            count += moveCount;
+        return count;
+    }
+
+    /**
+     * counts the sub-tree of one root move on a private copy of the board
+     */
+    private class RootMoveTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final BoardState boardState;
+        private final Move       move;
+        private final int        depth;
+
+        RootMoveTask(BoardState boardState, Move move, int depth)
+        {
+            this.boardState = boardState;
+            this.move       = move;
+            this.depth      = depth;
+        }
+
+        @Override
+        protected Long compute()
+        {
+            boardState.makeMove(move);
+            long count = count(boardState,depth);
+            boardState.unmakeMove();
+            return count;
+        }
+    }
+
+    /**
+     * runs perft on the command line, see the class description for the options
+     * @param args command-line options
+     */
+    public static void main(String[] args)
+    {
+        String  fen      = null;
+        int     depth    = 0;
+        boolean divide   = false;
+        boolean bulk     = true;
+        int     hashMB   = 0;
+        int     threads  = 1;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "-fen":     fen     = args[++i];                    break;
+                case "-depth":   depth   = Integer.parseInt(args[++i]);  break;
+                case "-divide":  divide  = true;                         break;
+                case "-nobulk":  bulk    = false;                        break;
+                case "-hash":    hashMB  = Integer.parseInt(args[++i]);  break;
+                case "-threads": threads = Integer.parseInt(args[++i]);  break;
+                case "-mode":
+                    String mode = args[++i];
+                    if (mode.equals("legal"))              MoveGenerator.setMode(MoveGenerator.Mode.LEGAL);
+                    else if (mode.equals("make-and-test")) MoveGenerator.setMode(MoveGenerator.Mode.MAKE_AND_TEST);
+                    else                                   unknownOption("-mode " + mode);
+                    break;
+                default:
+                    unknownOption(args[i]);
+            }
+        }
+
+        PerftTable   table = (hashMB > 0) ? new PerftTable(hashMB) : null;
+        Perft        perft = new Perft(bulk,table);
+        ForkJoinPool pool  = (threads > 1) ? new ForkJoinPool(threads) : null;
+
+        System.out.println("perft: generator " + MoveGenerator.getMode() + ", bulk " + bulk
+                         + ", hash " + hashMB + "MB, threads " + threads);
+
+        boolean allPassed = true;
+        if (fen != null)
+        {
+            run(perft,pool,"fen",fen,(depth > 0) ? depth : 4,null,divide);
+        }
+        else
+        {
+            for (Object[] position : REFERENCE_POSITIONS)
+            {
+                long[] expected = (long[])position[2];
+                int    runDepth = (depth > 0) ? Math.min(depth,expected.length) : (Integer)position[3];
+                allPassed &= run(perft,pool,(String)position[0],(String)position[1],runDepth,expected,divide);
+            }
+        }
+
+        if (table != null)
+            System.out.printf("hash probes %d hit-rate %.3f%n",table.getProbes(),table.getHitRate());
+        if (pool != null) pool.shutdown();
+        System.exit(allPassed ? 0 : 1);
+    }
+
+    /**
+     * reports a command-line option that is not recognized, and exits
+     * @param option option as given
+     */
+    private static void unknownOption(String option)
+    {
+        System.err.println("unknown option " + option);
+        System.exit(2);
+    }
+
+    /**
+     * counts one position, and prints its count, speed and (if known) whether
+     * it matches the reference count
+     * @return false if the count differs from the reference count
+     */
+    private static boolean run(Perft perft, ForkJoinPool pool, String name, String fen, int depth, long[] expected, boolean divide)
+    {
+        BoardState boardState = Fen.toBoardState(fen);
+        long startTime = System.nanoTime();
+        long count;
+        if (divide)
+        {
+            count = 0;
+            for (Map.Entry<String,Long> entry : perft.divide(boardState,depth,pool).entrySet())
+            {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+                count += entry.getValue();
+            }
+        }
+        else
+        {
+            count = perft.count(boardState,depth,pool);
+        }
+        long elapsedNanos = Math.max(1,System.nanoTime() - startTime);
+
+        boolean passed = (expected == null) || (count == expected[depth - 1]);
+        System.out.printf("%-10s depth %d nodes %12d %s time %7dms nps %10d%n",
+                          name,depth,count,
+                          (expected == null) ? "" : (passed ? "ok  " : "FAIL (expected " + expected[depth - 1] + ")"),
+                          elapsedNanos / 1000000,count * 1000000000L / elapsedNanos);
+        return passed;
+    }
+}
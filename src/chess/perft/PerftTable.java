@@ -0,0 +1,93 @@
+package chess.perft;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PerftTable: fixed-size, always-replace hash table of perft sub-tree counts,
+ * keyed by the Zobrist key of a position and the depth it was counted to, so
+ * a position reached again by transposition is not counted again
+ * 
+ * an entry is two longs, (key XOR data) and data, where data packs the count
+ * (upper 56 bits) and depth (lower 8 bits); as in the search's transposition
+ * table there are no locks, and an entry torn by two threads writing at once
+ * no longer XORs back to its key and is read as a miss
+ * @author devang
+ */
+public class PerftTable {
+    public static final int MAX_SIZE_MB = 1024;
+    
+    private static final int  ENTRY_BYTES = 16;
+    private static final long DEPTH_MIX   = 0x9E3779B97F4A7C15L;
+    
+    private final long[] entries;
+    private final int    entryMask;
+    
+    private final LongAdder probes;
+    private final LongAdder hits;
+    
+    /**
+     * constructor
+     * @param sizeMB size of the table in megabytes (1 - MAX_SIZE_MB), rounded down to a power of two
+     */
+    public PerftTable(int sizeMB)
+    {
+        sizeMB    = Integer.highestOneBit(Math.min(MAX_SIZE_MB,Math.max(1,sizeMB)));
+        int numEntries = (int)(((long)sizeMB << 20) / ENTRY_BYTES);
+        entries   = new long[2 * numEntries];
+        entryMask = numEntries - 1;
+        probes    = new LongAdder();
+        hits      = new LongAdder();
+    }
+    
+    /**
+     * looks up the count of a position
+     * @param key Zobrist key of the position
+     * @param depth depth the position is counted to
+     * @return leaf count, or -1 if it is not in the table
+     */
+    public long probe(long key, int depth)
+    {
+        probes.increment();
+        key ^= depth * DEPTH_MIX;
+        int  index = 2 * (int)(key & entryMask);
+        long data  = entries[index + 1];
+        if (((entries[index] ^ data) != key) || ((int)(data & 0xFF) != depth)) return -1;
+        hits.increment();
+        return data >>> 8;
+    }
+    
+    /**
+     * stores the count of a position, replacing whatever was in its entry
+     * @param key Zobrist key of the position
+     * @param depth depth the position was counted to (0 - 255)
+     * @param count leaf count
+     */
+    public void store(long key, int depth, long count)
+    {
+        key ^= depth * DEPTH_MIX;
+        int  index = 2 * (int)(key & entryMask);
+        long data  = (count << 8) | depth;
+        entries[index]     = key ^ data;
+        entries[index + 1] = data;
+    }
+    
+    public long getProbes()
+    {
+        return probes.sum();
+    }
+    
+    public long getHits()
+    {
+        return hits.sum();
+    }
+    
+    /**
+     * gets the fraction of probes that found their position
+     * @return hits / probes, 0 if there were no probes
+     */
+    public double getHitRate()
+    {
+        long probeCount = probes.sum();
+        return (probeCount == 0) ? 0 : (double)hits.sum() / probeCount;
+    }
+}
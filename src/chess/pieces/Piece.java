@@ -1,32 +1,52 @@
 package chess.pieces;
 
+import chess.board.Attacks;
 import chess.board.BoardState;
-import chess.books.MoveHistory;
 import chess.game.GameProperties;
 import chess.game.GameProperties.Direction;
-import static chess.game.GameProperties.Direction.UP;
 import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
 import chess.utility.Location;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.function.BiFunction;
 
 /**
  * Piece class using Factory and Composite patterns: because each piece
  * is initialized similarly, but also have different functionality
+ *
+ * pieces are immutable flyweights: there is one instance per type and color,
+ * shared by every board, and anything that changes during a game (castling
+ * rights, en-passant) is kept by the BoardState; the type and code are plain
+ * ints so tables can be indexed by them instead of testing the class
  * @author devang
  */
 public abstract class Piece {
+    public static final int PAWN   = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK   = 3;
+    public static final int QUEEN  = 4;
+    public static final int KING   = 5;
+    
     private final PlayerColor color;
-    public MoveHistory history;
+    private final int         type;
+    private final int         code;
     
     public abstract Piece getCopy();
     
-    protected Piece(PlayerColor color)
+    protected Piece(PlayerColor color, int type)
     {
         this.color = color;
-        history = MoveHistory.createNew();
+        this.type  = type;
+        this.code  = type + (6 * color.ordinal());
+    }
+    
+    /**
+     * gets the type of this Piece
+     * @return PAWN, KNIGHT, BISHOP, ROOK, QUEEN or KING
+     */
+    public final int getType()
+    {
+        return type;
     }
     
     /**
@@ -39,9 +59,41 @@ public abstract class Piece {
     }
     
     /**
-     * initiates deep-copy creation of a piece [using composite pattern]
-     * @param piece piece of which to create a deep-copy
-     * @return newly-created deep copy of the piece in the argument
+     * gets a code unique to the type and color of this Piece, used to index
+     * tables such as Zobrist keys: white pieces are 0 - 5, black pieces 6 - 11
+     * @return type + 6 * color
+     */
+    public final int getCode()
+    {
+        return code;
+    }
+    
+    /**
+     * gets the shared piece for a piece code
+     * @param code type + 6 * color, as returned by getCode
+     * @return the piece of that type and color
+     */
+    public static Piece of(int code)
+    {
+        return Flyweights.PIECES[code];
+    }
+    
+    /**
+     * gets the shared piece of a type and color
+     * @param color black, or white
+     * @param type PAWN, KNIGHT, BISHOP, ROOK, QUEEN or KING
+     * @return the piece of that type and color
+     */
+    public static Piece of(PlayerColor color, int type)
+    {
+        return Flyweights.PIECES[type + (6 * color.ordinal())];
+    }
+    
+    /**
+     * initiates copy of a piece [using composite pattern]; pieces are shared,
+     * so this returns the piece itself
+     * @param piece piece of which to create a copy
+     * @return the piece in the argument
      */
     public static Piece copy(Piece piece)
     {
@@ -50,10 +102,6 @@ public abstract class Piece {
     
     public abstract List<Move> getValidMoves(Location location, BoardState boardState);
     
-    protected Location nextLocation(Location start, int i, BiFunction<Location,Integer,Location> locationMethod) {
-        Location newLocation = locationMethod.apply(start, i);
-        return newLocation;
-    }
     /**
      * determines if a move for the piece at startLocation argument can legally move to nextLocation argument
      * @param startLocation location of a piece to evaluate a move
@@ -80,14 +128,28 @@ public abstract class Piece {
             newMove = Move.createRegular(startLocation,nextLocation);
         }
         
-        BoardState tempBoardState = BoardState.copy(boardState);
-        newMove.commitMove(tempBoardState);
-        if (!tempBoardState.check(playerColor))
+        if (leavesKingSafe(newMove,playerColor,boardState))
             return newMove;
         
         return null;
     }
     
+    /**
+     * tests a move for legality by making it on the board, testing the king, 
+     * and taking it back: the board state is left as it was found
+     * @param move move to test
+     * @param playerColor color of the player making the move
+     * @param boardState state of the board to analyze for this move
+     * @return true if the move does not leave the player's king in check
+     */
+    protected static boolean leavesKingSafe(Move move, PlayerColor playerColor, BoardState boardState)
+    {
+        boardState.makeMove(move);
+        boolean kingSafe = !boardState.check(playerColor);
+        boardState.unmakeMove();
+        return kingSafe;
+    }
+    
     /**
      * checks the king for attack from pawns
      * @param location location for the king to check from
@@ -98,35 +160,11 @@ public abstract class Piece {
     {
         PlayerColor playerColor = getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
-        Direction playerDirection = GameProperties.getColorDirection(playerColor);
-        Direction opponentDirection = GameProperties.getColorDirection(opponentColor);
-        
-        List<Location> attackLocations = new ArrayList<>();
-        if (playerDirection == UP)
-        {
-            attackLocations.add(Location.upLeft(location));
-            attackLocations.add(Location.upRight(location));
-        }
-        else // Properties.getColorDirection(pieceColor) == DOWN
-        {    //   || playerDirection == DOWN
-            attackLocations.add(Location.downLeft(location));
-            attackLocations.add(Location.downRight(location));
-        }
-        
-        for (Location attackLocation : attackLocations)
-        {
-            if ((attackLocation != null) && !boardState.isEmpty(attackLocation))
-            {
-                Piece piece = boardState.getPiece(attackLocation);
-                if ((piece.getColor() == opponentColor) && (piece instanceof PiecePawn))
-                {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
         
+        // an opponent pawn attacks this square if it stands on a square that
+        // a pawn of this color would attack from here
+        long attackers = Attacks.pawn(playerColor,Location.getIndex(location));
+        return ((attackers & boardState.getPieces(opponentColor,PAWN)) != 0);
     }
     
     /**
@@ -140,37 +178,8 @@ public abstract class Piece {
         PlayerColor playerColor = getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
-        Location startLocation;
-        Location attackLocation;
-
-        List<BiFunction<Location,Integer,Location>> locationDirections;
-        locationDirections = new ArrayList<>();
-        locationDirections.add(Location::upLeftX);
-        locationDirections.add(Location::upRightX);
-        locationDirections.add(Location::downLeftX);
-        locationDirections.add(Location::downRightX);
-
-        startLocation = Location.copyOf(location);
-        for (BiFunction<Location,Integer,Location> function : locationDirections)
-        {
-            int next = 1;
-            attackLocation = nextLocation(startLocation,next,function);
-            while ((attackLocation != null ) && boardState.isEmpty(attackLocation))
-            {
-                next++;
-                attackLocation = nextLocation(startLocation,next,function);
-            }
-            if ((attackLocation != null) && !boardState.isEmpty(attackLocation))
-            {
-                Piece piece = boardState.getPiece(attackLocation);
-                if ((piece.getColor() == opponentColor) && (piece instanceof PieceBishop))
-                {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        long attackers = Attacks.bishop(Location.getIndex(location),boardState.getOccupied());
+        return ((attackers & boardState.getPieces(opponentColor,BISHOP)) != 0);
     }
     
     /**
@@ -184,28 +193,8 @@ public abstract class Piece {
         PlayerColor playerColor = getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
-        Location[] attackLocations = { Location.left(Location.up2(location)),
-                                       Location.right(Location.up2(location)),
-                                       Location.left(Location.down2(location)),
-                                       Location.right(Location.down2(location)),
-                                       Location.up(Location.left2(location)),
-                                       Location.down(Location.left2(location)),
-                                       Location.up(Location.right2(location)),
-                                       Location.down(Location.right2(location))};
-        
-        for (Location attackLocation : attackLocations)
-        {
-            if ((attackLocation != null) && !boardState.isEmpty(attackLocation))
-            {
-                Piece piece = boardState.getPiece(attackLocation);
-                if ((piece.getColor() == opponentColor) && (piece instanceof PieceKnight))
-                {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        long attackers = Attacks.knight(Location.getIndex(location));
+        return ((attackers & boardState.getPieces(opponentColor,KNIGHT)) != 0);
     }
     
     /**
@@ -219,37 +208,8 @@ public abstract class Piece {
         PlayerColor playerColor = getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
-        Location startLocation;
-        Location attackLocation;
-
-        List<BiFunction<Location,Integer,Location>> locationDirections;
-        locationDirections = new ArrayList<>();
-        locationDirections.add(Location::leftX);
-        locationDirections.add(Location::rightX);
-        locationDirections.add(Location::upX);
-        locationDirections.add(Location::downX);
-
-        startLocation = Location.copyOf(location);
-        for (BiFunction<Location,Integer,Location> function : locationDirections)
-        {
-            int next = 1;
-            attackLocation = nextLocation(startLocation,next,function);
-            while ((attackLocation != null ) && boardState.isEmpty(attackLocation))
-            {
-                next++;
-                attackLocation = nextLocation(startLocation,next,function);
-            }
-            if ((attackLocation != null) && !boardState.isEmpty(attackLocation))
-            {
-                Piece piece = boardState.getPiece(attackLocation);
-                if ((piece.getColor() == opponentColor) && (piece instanceof PieceRook))
-                {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        long attackers = Attacks.rook(Location.getIndex(location),boardState.getOccupied());
+        return ((attackers & boardState.getPieces(opponentColor,ROOK)) != 0);
     }
     
     /**
@@ -263,41 +223,8 @@ public abstract class Piece {
         PlayerColor playerColor = getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
-        Location startLocation;
-        Location attackLocation;
-
-        List<BiFunction<Location,Integer,Location>> locationDirections;
-        locationDirections = new ArrayList<>();
-        locationDirections.add(Location::leftX);
-        locationDirections.add(Location::rightX);
-        locationDirections.add(Location::upX);
-        locationDirections.add(Location::downX);
-        locationDirections.add(Location::upLeftX);
-        locationDirections.add(Location::upRightX);
-        locationDirections.add(Location::downLeftX);
-        locationDirections.add(Location::downRightX);
-
-        startLocation = Location.copyOf(location);
-        for (BiFunction<Location,Integer,Location> function : locationDirections)
-        {
-            int next = 1;
-            attackLocation = nextLocation(startLocation,next,function);
-            while ((attackLocation != null ) && boardState.isEmpty(attackLocation))
-            {
-                next++;
-                attackLocation = nextLocation(startLocation,next,function);
-            }
-            if ((attackLocation != null) && !boardState.isEmpty(attackLocation))
-            {
-                Piece piece = boardState.getPiece(attackLocation);
-                if ((piece.getColor() == opponentColor) && (piece instanceof PieceQueen))
-                {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        long attackers = Attacks.queen(Location.getIndex(location),boardState.getOccupied());
+        return ((attackers & boardState.getPieces(opponentColor,QUEEN)) != 0);
     }
     
     /**
@@ -311,28 +238,8 @@ public abstract class Piece {
         PlayerColor playerColor = getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
-        Location[] attackLocations = { Location.up(location),
-                                       Location.down(location),
-                                       Location.left(location),
-                                       Location.right(location),
-                                       Location.upLeft(location),
-                                       Location.downLeft(location),
-                                       Location.upRight(location),
-                                       Location.downRight(location) };
-        
-        for (Location attackLocation : attackLocations)
-        {
-            if ((attackLocation != null) && !boardState.isEmpty(attackLocation))
-            {
-                Piece piece = boardState.getPiece(attackLocation);
-                if ((piece.getColor() == opponentColor) && (piece instanceof PieceKing))
-                {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        long attackers = Attacks.king(Location.getIndex(location));
+        return ((attackers & boardState.getPieces(opponentColor,KING)) != 0);
     }
     
     
@@ -375,5 +282,19 @@ public abstract class Piece {
         
         return false;
     }
-
+    
+    /**
+     * the shared pieces, indexed by code; held apart from Piece so that the
+     * table is filled only once the subclasses can be initialized
+     */
+    private static final class Flyweights {
+        private static final Piece[] PIECES = {
+            PiecePawn.create(PlayerColor.WHITE),   PieceKnight.create(PlayerColor.WHITE),
+            PieceBishop.create(PlayerColor.WHITE), PieceRook.create(PlayerColor.WHITE),
+            PieceQueen.create(PlayerColor.WHITE),  PieceKing.create(PlayerColor.WHITE),
+            PiecePawn.create(PlayerColor.BLACK),   PieceKnight.create(PlayerColor.BLACK),
+            PieceBishop.create(PlayerColor.BLACK), PieceRook.create(PlayerColor.BLACK),
+            PieceQueen.create(PlayerColor.BLACK),  PieceKing.create(PlayerColor.BLACK)
+        };
+    }
 }
@@ -1,14 +1,13 @@
 package chess.pieces;
 
+import chess.board.Attacks;
 import chess.board.BoardState;
-import chess.books.MoveHistory;
 import chess.game.GameProperties;
 import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
 import chess.utility.Location;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.BiFunction;
 
 /**
  *
@@ -16,31 +15,32 @@ import java.util.function.BiFunction;
  */
 public class PieceBishop extends Piece {
     
+    private static final Piece WHITE_BISHOP = new PieceBishop(PlayerColor.WHITE);
+    private static final Piece BLACK_BISHOP = new PieceBishop(PlayerColor.BLACK);
+    
     private PieceBishop(PlayerColor color)
     {
-        super(color);
+        super(color,BISHOP);
     }
     
     /**
-     * returns a deep-copy of this Piece, useful if class variables are added later
-     * @return newly created copy of this Bishop
+     * returns this Piece: pieces are immutable and shared, so a copy is the piece itself
+     * @return this Bishop
      */
     @Override
     public Piece getCopy()
     {
-        Piece newPiece = PieceBishop.create(getColor());
-        newPiece.history = MoveHistory.createFrom(history);
-        return newPiece;
+        return this;
     }
     
     /**
      * factory-style create of a Bishop
      * @param color black, or white
-     * @return newly-created Bishop object
+     * @return the shared Bishop of that color
      */
     public static Piece create(PlayerColor color)
     {
-        return new PieceBishop(color);
+        return (color == PlayerColor.WHITE) ? WHITE_BISHOP : BLACK_BISHOP;
     }
     
     /**
@@ -56,42 +56,26 @@ public class PieceBishop extends Piece {
         if (location == null) return validMoves;
         
         Piece thisPiece = boardState.getPiece(location);
-        if (!(thisPiece instanceof PieceBishop)) return validMoves;
+        if ((thisPiece == null) || (thisPiece.getType() != BISHOP)) return validMoves;
         
         PlayerColor playerColor = thisPiece.getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
-        Location startLocation;
-        Location nextLocation;
-
-        List<BiFunction<Location,Integer,Location>> locationDirections;
-        locationDirections = new ArrayList<>();
-        locationDirections.add(Location::upLeftX);
-        locationDirections.add(Location::upRightX);
-        locationDirections.add(Location::downLeftX);
-        locationDirections.add(Location::downRightX);
-
-        startLocation = Location.copyOf(location);
-        for (BiFunction<Location,Integer,Location> function : locationDirections)
+        Location startLocation = Location.copyOf(location);
+        
+        // every square along this bishop's rays up to the first piece on each, 
+        // less those held by this player's own pieces
+        long occupied    = boardState.getOccupied();
+        long moveSquares = Attacks.bishop(Location.getIndex(location),occupied) & ~boardState.getPieces(playerColor);
+        
+        while (moveSquares != 0)
         {
-            int next = 1;
-            nextLocation = nextLocation(startLocation,next,function);
-            while ((nextLocation != null ) && boardState.isEmpty(nextLocation))
-            {
-                Move newMove = validateMove(startLocation,nextLocation,boardState);
-                if (newMove != null)
-                {
-                    validMoves.add(newMove);
-                }
-                nextLocation = nextLocation(startLocation,next++,function);
-            }
-            if ((nextLocation != null) && !boardState.isEmpty(nextLocation))
+            Location nextLocation = Location.of(Long.numberOfTrailingZeros(moveSquares));
+            moveSquares &= moveSquares - 1;
+            Move newMove = validateMove(startLocation,nextLocation,boardState);
+            if (newMove != null)
             {
-                Move newMove = validateMove(startLocation,nextLocation,boardState);
-                if (newMove != null)
-                {
-                    validMoves.add(newMove);
-                }
+                validMoves.add(newMove);
             }
         }
         
@@ -1,7 +1,7 @@
 package chess.pieces;
 
+import chess.board.Attacks;
 import chess.board.BoardState;
-import chess.books.MoveHistory;
 import chess.game.GameProperties;
 import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
@@ -16,9 +16,12 @@ import java.util.List;
  */
 public class PieceKing extends Piece {
     
+    private static final Piece WHITE_KING = new PieceKing(PlayerColor.WHITE);
+    private static final Piece BLACK_KING = new PieceKing(PlayerColor.BLACK);
+    
     private PieceKing(PlayerColor color)
     {
-        super(color);
+        super(color,KING);
     }
     
     /**
@@ -34,28 +37,28 @@ public class PieceKing extends Piece {
         List<Move> validMoves = new ArrayList<>();
         if (location == null) return validMoves;
         Piece thisPiece = boardState.getPiece(location);
-        if (!(thisPiece instanceof PieceKing)) return validMoves;
+        if ((thisPiece == null) || (thisPiece.getType() != KING)) return validMoves;
         PlayerColor playerColor = thisPiece.getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
         Location startLocation = Location.copyOf(location);
-        Location[] moveLocations = { Location.left(startLocation),
-                                     Location.right(startLocation),
-                                     Location.up(startLocation),
-                                     Location.down(startLocation),
-                                     Location.upLeft(startLocation),
-                                     Location.upRight(startLocation),
-                                     Location.downLeft(startLocation),
-                                     Location.downRight(startLocation)};
         
-        for (Location nextLocation : moveLocations)
+        // every adjacent square, less those held by this player's own pieces
+        long moveSquares = Attacks.king(Location.getIndex(location)) & ~boardState.getPieces(playerColor);
+        
+        while (moveSquares != 0)
         {
-            startLocation = Location.copyOf(location);
+            Location nextLocation = Location.of(Long.numberOfTrailingZeros(moveSquares));
+            moveSquares &= moveSquares - 1;
             Move newMove = validateMove(startLocation,nextLocation,boardState);
             if (newMove != null)
                 validMoves.add(newMove);
         }
         
+        // castling rights are lost once the king or the rook has moved, see BoardState.completeMove
+        int kingsideRight  = (playerColor == PlayerColor.WHITE) ? BoardState.WHITE_KINGSIDE  : BoardState.BLACK_KINGSIDE;
+        int queensideRight = (playerColor == PlayerColor.WHITE) ? BoardState.WHITE_QUEENSIDE : BoardState.BLACK_QUEENSIDE;
+        
         Location kingLocation;
         Location newLocation;
         Location rookLocation;
@@ -72,9 +75,9 @@ public class PieceKing extends Piece {
         rook = null;
         if (!boardState.isEmpty(rookLocation))
             rook = boardState.getPiece(rookLocation);
-        if ((rook != null) && (rook instanceof PieceRook))
+        if ((rook != null) && (rook.getType() == ROOK))
         {
-            if (history.isEmpty() && rook.history.isEmpty())
+            if ((boardState.getCastlingRights() & queensideRight) != 0)
             {
                 MoveCastle moveCastle = validateLeftCastle(kingLocation,newLocation,rookLocation,boardState);
                 if (moveCastle != null) validMoves.add(moveCastle);
@@ -91,9 +94,9 @@ public class PieceKing extends Piece {
         rook = null;
         if (!boardState.isEmpty(rookLocation))
             rook = boardState.getPiece(rookLocation);
-        if ((rook != null) && (rook instanceof PieceRook))
+        if ((rook != null) && (rook.getType() == ROOK))
         {
-            if (history.isEmpty() && rook.history.isEmpty())
+            if ((boardState.getCastlingRights() & kingsideRight) != 0)
             {
                 MoveCastle moveCastle = validateRightCastle(kingLocation,newLocation,rookLocation,boardState);
                 if (moveCastle != null) validMoves.add(moveCastle);
@@ -132,19 +135,17 @@ public class PieceKing extends Piece {
             if (!boardState.isEmpty(leftLocations[i])) return null;
         }
         
+        // a king cannot castle out of check
+        if (boardState.check(playerColor)) return null;
+        
         Move newMove;
-        BoardState tempBoardState;
         
         newMove = Move.createRegular(kingLocation,leftLocations[1]);
-        tempBoardState = BoardState.copy(boardState);
-        newMove.commitMove(tempBoardState);
-        if (tempBoardState.check(playerColor))
+        if (!leavesKingSafe(newMove,playerColor,boardState))
             return null;
         
         newMove = Move.createRegular(kingLocation,leftLocations[2]);
-        tempBoardState = BoardState.copy(boardState);
-        newMove.commitMove(tempBoardState);
-        if (tempBoardState.check(playerColor))
+        if (!leavesKingSafe(newMove,playerColor,boardState))
             return null;
         
         Location newRookLocation = Location.left(kingLocation);
@@ -182,19 +183,17 @@ public class PieceKing extends Piece {
             if (!boardState.isEmpty(rightLocations[i])) return null;
         }
         
+        // a king cannot castle out of check
+        if (boardState.check(playerColor)) return null;
+        
         Move newMove;
-        BoardState tempBoardState;
         
         newMove = Move.createRegular(kingLocation,rightLocations[1]);
-        tempBoardState = BoardState.copy(boardState);
-        newMove.commitMove(tempBoardState);
-        if (tempBoardState.check(playerColor))
+        if (!leavesKingSafe(newMove,playerColor,boardState))
             return null;
         
         newMove = Move.createRegular(kingLocation,rightLocations[2]);
-        tempBoardState = BoardState.copy(boardState);
-        newMove.commitMove(tempBoardState);
-        if (tempBoardState.check(playerColor))
+        if (!leavesKingSafe(newMove,playerColor,boardState))
             return null;
         
         Location newRookLocation = Location.right(kingLocation);
@@ -206,25 +205,23 @@ public class PieceKing extends Piece {
 
     
     /**
-     * returns a deep-copy of this Piece, useful if class variables are added later
-     * @return newly created copy of this King
+     * returns this Piece: pieces are immutable and shared, so a copy is the piece itself
+     * @return this King
      */
     @Override
     public Piece getCopy()
     {
-        Piece newPiece = PieceKing.create(getColor());
-        newPiece.history = MoveHistory.createFrom(history);
-        return newPiece;
+        return this;
     }
     
     /**
      * factory-style create of a King
      * @param color black, or white
-     * @return newly-created King object
+     * @return the shared King of that color
      */
     public static Piece create(PlayerColor color)
     {
-        return new PieceKing(color);
+        return (color == PlayerColor.WHITE) ? WHITE_KING : BLACK_KING;
     }
     
     /**
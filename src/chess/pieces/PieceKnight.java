@@ -1,7 +1,7 @@
 package chess.pieces;
 
+import chess.board.Attacks;
 import chess.board.BoardState;
-import chess.books.MoveHistory;
 import chess.game.GameProperties;
 import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
@@ -15,9 +15,12 @@ import java.util.List;
  */
 public class PieceKnight extends Piece {
     
+    private static final Piece WHITE_KNIGHT = new PieceKnight(PlayerColor.WHITE);
+    private static final Piece BLACK_KNIGHT = new PieceKnight(PlayerColor.BLACK);
+    
     private PieceKnight(PlayerColor color)
     {
-        super(color);
+        super(color,KNIGHT);
     }
     
     
@@ -35,24 +38,19 @@ public class PieceKnight extends Piece {
         List<Move> validMoves = new ArrayList<>();
         if (location == null) return validMoves;
         Piece thisPiece = boardState.getPiece(location);
-        if (!(thisPiece instanceof PieceKnight)) return validMoves;
+        if ((thisPiece == null) || (thisPiece.getType() != KNIGHT)) return validMoves;
         PlayerColor playerColor = thisPiece.getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
         Location startLocation = Location.copyOf(location);
         
-        Location[] moveLocations = { Location.left(Location.up2(startLocation)),
-                                     Location.right(Location.up2(startLocation)),
-                                     Location.left(Location.down2(startLocation)),
-                                     Location.right(Location.down2(startLocation)),
-                                     Location.up(Location.left2(startLocation)),
-                                     Location.down(Location.left2(startLocation)),
-                                     Location.up(Location.right2(startLocation)),
-                                     Location.down(Location.right2(startLocation))};
+        // every square a knight jumps to, less those held by this player's own pieces
+        long moveSquares = Attacks.knight(Location.getIndex(location)) & ~boardState.getPieces(playerColor);
         
-        for (Location nextLocation : moveLocations)
+        while (moveSquares != 0)
         {
-            startLocation = Location.copyOf(location);
+            Location nextLocation = Location.of(Long.numberOfTrailingZeros(moveSquares));
+            moveSquares &= moveSquares - 1;
             Move newMove = validateMove(startLocation,nextLocation,boardState);
             if (newMove != null)
             {
@@ -64,24 +62,22 @@ public class PieceKnight extends Piece {
     }
     
     /**
-     * returns a deep-copy of this Piece, useful if class variables are added later
-     * @return newly created copy of this Knight
+     * returns this Piece: pieces are immutable and shared, so a copy is the piece itself
+     * @return this Knight
      */
     @Override
     public Piece getCopy()
     {
-        Piece newPiece = PieceKnight.create(getColor());
-        newPiece.history = MoveHistory.createFrom(history);
-        return newPiece;
+        return this;
     }
     
     /**
      * factory-style create of a Knight
      * @param color black, or white
-     * @return newly-created Knight object
+     * @return the shared Knight of that color
      */
     public static Piece create(PlayerColor color)
     {
-        return new PieceKnight(color);
+        return (color == PlayerColor.WHITE) ? WHITE_KNIGHT : BLACK_KNIGHT;
     }
 }
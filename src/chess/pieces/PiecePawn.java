@@ -1,7 +1,6 @@
 package chess.pieces;
 
 import chess.board.BoardState;
-import chess.books.MoveHistory;
 import chess.game.GameProperties;
 import chess.game.GameProperties.Direction;
 import static chess.game.GameProperties.Direction.UP;
@@ -9,7 +8,6 @@ import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
 import chess.moves.MoveEnPassant;
 import chess.moves.MovePromotion;
-import chess.moves.MoveRegular;
 import chess.utility.Location;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,9 +18,12 @@ import java.util.List;
  */
 public class PiecePawn extends Piece {
     
+    private static final Piece WHITE_PAWN = new PiecePawn(PlayerColor.WHITE);
+    private static final Piece BLACK_PAWN = new PiecePawn(PlayerColor.BLACK);
+    
     private PiecePawn(PlayerColor color)
     {
-        super(color);
+        super(color,PAWN);
     }
    /**
      * determines if this pawn can do en-passant
@@ -45,9 +46,7 @@ public class PiecePawn extends Piece {
             Location locationCapture = Location.of(endFile,startRank);
             
             Move newMove = Move.createEnPassant(startLocation,nextLocation,locationCapture);
-            BoardState tempBoardState = BoardState.copy(boardState);
-            newMove.commitMove(tempBoardState);
-            if (!tempBoardState.check(playerColor))
+            if (leavesKingSafe(newMove,playerColor,boardState))
             {
                 return newMove;
             }
@@ -75,10 +74,7 @@ public class PiecePawn extends Piece {
             else
                 newMove = Move.createRegular(startLocation,nextLocation);
             
-            BoardState tempBoardState = BoardState.copy(boardState);
-            newMove.commitMove(tempBoardState);
-            
-            if (!tempBoardState.check(playerColor))
+            if (leavesKingSafe(newMove,playerColor,boardState))
             {
                 return newMove;
             }
@@ -87,6 +83,24 @@ public class PiecePawn extends Piece {
         return null;
     }
     
+    /**
+     * adds a validated move to a list of valid moves; a promotion is added
+     * once for each type of piece the pawn can be promoted to
+     * @param validMoves list to add to
+     * @param move validated move, nothing is added if null
+     */
+    private static void addValidMove(List<Move> validMoves, Move move)
+    {
+        if (move == null) return;
+        if (!(move instanceof MovePromotion))
+        {
+            validMoves.add(move);
+            return;
+        }
+        for (MovePromotion.PieceType pieceType : MovePromotion.PieceType.values())
+            validMoves.add(Move.createPromotion(move.getFromLocation(),move.getToLocation(),pieceType));
+    }
+    
     /**
      * gets a list of valid moves for the piece at the given location on the given board state<br>
      * - the piece at this location will be this pawn<br>
@@ -101,11 +115,10 @@ public class PiecePawn extends Piece {
     @Override
     public List<Move> getValidMoves(Location location, BoardState boardState)
     {
-        MoveHistory moveHistory = boardState.moveHistory;
         List<Move> validMoves = new ArrayList<>();
         if (location == null) return validMoves;
         Piece thisPiece = boardState.getPiece(location);
-        if (!(thisPiece instanceof PiecePawn)) return validMoves;
+        if ((thisPiece == null) || (thisPiece.getType() != PAWN)) return validMoves;
         PlayerColor playerColor = thisPiece.getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         Direction   playerDirection = GameProperties.getColorDirection(playerColor);
@@ -119,7 +132,7 @@ public class PiecePawn extends Piece {
         if (playerDirection == UP)
         {
             moveLocations.add(Location.up(startLocation));
-            if (Location.getRank(startLocation).equalsIgnoreCase("2"))
+            if (Location.getRank(startLocation).equalsIgnoreCase("2") && boardState.isEmpty(Location.up(startLocation)))
                 moveLocations.add(Location.up2(startLocation));
             captureLocations.add(Location.left(Location.up(startLocation)));
             captureLocations.add(Location.right(Location.up(startLocation)));
@@ -127,7 +140,7 @@ public class PiecePawn extends Piece {
         else // Properties.getColorDirection(pieceColor) == DOWN
         {
             moveLocations.add(Location.down(startLocation));
-            if (Location.getRank(startLocation).equalsIgnoreCase("7"))
+            if (Location.getRank(startLocation).equalsIgnoreCase("7") && boardState.isEmpty(Location.down(startLocation)))
                 moveLocations.add(Location.down2(startLocation));
             captureLocations.add(Location.left(Location.down(startLocation)));
             captureLocations.add(Location.right(Location.down(startLocation)));
@@ -141,7 +154,7 @@ public class PiecePawn extends Piece {
             if ((nextLocation != null) && boardState.isEmpty(nextLocation))
             {
                 newMove = validateMove(startLocation,nextLocation,boardState);
-                if (newMove != null) validMoves.add(newMove);
+                addValidMove(validMoves,newMove);
             }
         }
         
@@ -155,146 +168,25 @@ public class PiecePawn extends Piece {
                 if (boardState.getPiece(nextLocation).getColor() == opponentColor)
                 {
                     newMove = validateMove(startLocation,nextLocation,boardState);
-                    if (newMove != null) validMoves.add(newMove);
+                    addValidMove(validMoves,newMove);
                 }
             }
         }
         
         //////////////////////////
-        // en-passant
-        Location currentLocation = Location.copyOf(location);
-        Location leftLocation = Location.left(currentLocation);
-        Location rightLocation = Location.right(currentLocation);
-        PiecePawn pawnToLeft = null;
-        PiecePawn pawnToRight = null;
-        if ((leftLocation != null) && !boardState.isEmpty(leftLocation))
-        {
-            Piece piece = boardState.getPiece(leftLocation);
-            if ((piece.getColor() == opponentColor) && (piece instanceof PiecePawn))
-            {
-                pawnToLeft = (PiecePawn)piece;
-            }
-        }
-        if ((rightLocation != null) && !boardState.isEmpty(rightLocation))
-        {
-            Piece piece = boardState.getPiece(rightLocation);
-            if ((piece.getColor() == opponentColor) && (piece instanceof PiecePawn))
-            {
-                pawnToRight = (PiecePawn)piece;
-            }
-        }        
-        
-        if (playerDirection == UP)
-        {
-            if ((pawnToLeft != null) && (moveHistory != null))
-            {
-                MoveRegular mostRecentPawnMove = null;
-                MoveRegular mostRecentGameMove = null;
-                Move pawnMove = pawnToLeft.history.getLast();
-                Move gameMove = moveHistory.getLast();
-                
-                if (pawnMove instanceof MoveRegular) mostRecentPawnMove = (MoveRegular)pawnMove;
-                if (gameMove instanceof MoveRegular) mostRecentGameMove = (MoveRegular)gameMove;
-                
-                if ((mostRecentPawnMove != null) && (mostRecentGameMove != null) && (mostRecentPawnMove == mostRecentGameMove))
-                {
-                    Location toLocation = mostRecentPawnMove.getToLocation();
-                    Location fromLocation = mostRecentPawnMove.getFromLocation();
-                    int toLocationIdx = Location.getRow(toLocation);
-                    int fromLocationIdx = Location.getRow(fromLocation);
-
-                    if ((pawnToLeft.history.getSize() == 1) && ((fromLocationIdx - toLocationIdx) == 2))
-                    {
-                        Location newFromLocation = Location.copyOf(location);
-                        Location newToLocation = Location.upLeft(newFromLocation);
-                        newMove = validateEnPassantMove(newFromLocation,newToLocation,boardState);
-                        if (newMove != null) validMoves.add(newMove);
-                    }
-                }
-            }
-            
-            if ((pawnToRight != null) && (moveHistory != null))
-            {
-                MoveRegular mostRecentPawnMove = null;
-                MoveRegular mostRecentGameMove = null;
-                Move pawnMove = pawnToRight.history.getLast();
-                Move gameMove = moveHistory.getLast();
-                
-                if (pawnMove instanceof MoveRegular) mostRecentPawnMove = (MoveRegular)pawnMove;
-                if (gameMove instanceof MoveRegular) mostRecentGameMove = (MoveRegular)gameMove;
-                
-                if ((mostRecentPawnMove != null) && (mostRecentGameMove != null) && (mostRecentPawnMove == mostRecentGameMove))
-                {
-                    Location toLocation = mostRecentPawnMove.getToLocation();
-                    Location fromLocation = mostRecentPawnMove.getFromLocation();
-                    int toLocationIdx = Location.getRow(toLocation);
-                    int fromLocationIdx = Location.getRow(fromLocation);
-
-                    if ((pawnToRight.history.getSize() == 1) && ((fromLocationIdx - toLocationIdx) == 2))
-                    {
-                        Location newFromLocation = Location.copyOf(location);
-                        Location newToLocation = Location.upRight(newFromLocation);
-                        newMove = validateEnPassantMove(newFromLocation,newToLocation,boardState);
-                        if (newMove != null) validMoves.add(newMove);
-                    }
-                }
-            }
-        }
-        else // Properties.getColorDirection(pieceColor) == DOWN
+        // en-passant: the board records the space passed over by a pawn that
+        // has just moved two spaces, a capture onto that space takes the pawn
+        int enPassantSquare = boardState.getEnPassantSquare();
+        if ((enPassantSquare >= 0) && (playerColor == boardState.getSideToMove()))
         {
-            if ((pawnToLeft != null) && (moveHistory != null))
+            for (Location nextLocation : captureLocations)
             {
-                MoveRegular mostRecentPawnMove = null;
-                MoveRegular mostRecentGameMove = null;
-                Move pawnMove = pawnToLeft.history.getLast();
-                Move gameMove = moveHistory.getLast();
-                
-                if (pawnMove instanceof MoveRegular) mostRecentPawnMove = (MoveRegular)pawnMove;
-                if (gameMove instanceof MoveRegular) mostRecentGameMove = (MoveRegular)gameMove;
-                
-                if ((mostRecentPawnMove != null) && (mostRecentGameMove != null) && (mostRecentPawnMove == mostRecentGameMove))
+                if ((nextLocation != null) && (Location.getIndex(nextLocation) == enPassantSquare))
                 {
-                    Location toLocation = mostRecentPawnMove.getToLocation();
-                    Location fromLocation = mostRecentPawnMove.getFromLocation();
-                    int toLocationIdx = Location.getRow(toLocation);
-                    int fromLocationIdx = Location.getRow(fromLocation);
-
-                    if ((pawnToLeft.history.getSize() == 1) && ((toLocationIdx - fromLocationIdx) == 2))
-                    {
-                        Location newFromLocation = Location.copyOf(location);
-                        Location newToLocation = Location.downLeft(newFromLocation);
-                        newMove = validateEnPassantMove(newFromLocation,newToLocation,boardState);
-                        if (newMove != null) validMoves.add(newMove);
-                    }
+                    newMove = validateEnPassantMove(Location.copyOf(location),nextLocation,boardState);
+                    if (newMove != null) validMoves.add(newMove);
                 }
             }
-            
-            if ((pawnToRight != null) && (moveHistory != null))
-            {
-                MoveRegular mostRecentPawnMove = null;
-                MoveRegular mostRecentGameMove = null;
-                Move pawnMove = pawnToRight.history.getLast();
-                Move gameMove = moveHistory.getLast();
-                
-                if (pawnMove instanceof MoveRegular) mostRecentPawnMove = (MoveRegular)pawnMove;
-                if (gameMove instanceof MoveRegular) mostRecentGameMove = (MoveRegular)gameMove;
-                
-                if ((mostRecentPawnMove != null) && (mostRecentGameMove != null) && (mostRecentPawnMove == mostRecentGameMove))
-                {
-                    Location toLocation = mostRecentPawnMove.getToLocation();
-                    Location fromLocation = mostRecentPawnMove.getFromLocation();
-                    int toLocationIdx = Location.getRow(toLocation);
-                    int fromLocationIdx = Location.getRow(fromLocation);
-
-                    if ((pawnToRight.history.getSize() == 1) && ((toLocationIdx - fromLocationIdx) == 2))
-                    {
-                        Location newFromLocation = Location.copyOf(location);
-                        Location newToLocation = Location.downRight(newFromLocation);
-                        newMove = validateEnPassantMove(newFromLocation,newToLocation,boardState);
-                        if (newMove != null) validMoves.add(newMove);
-                    }
-                }
-            } 
         }
 
         return validMoves;
@@ -302,24 +194,22 @@ public class PiecePawn extends Piece {
         
     
     /**
-     * returns a deep-copy of this Piece, useful if class variables are added later
-     * @return newly created copy of this Pawn
+     * returns this Piece: pieces are immutable and shared, so a copy is the piece itself
+     * @return this Pawn
      */
     @Override
     public Piece getCopy()
     {
-        Piece newPiece = PiecePawn.create(getColor());
-        newPiece.history = MoveHistory.createFrom(history);
-        return newPiece;
+        return this;
     }
     
     /**
      * factory-style create of a Pawn
      * @param color black, or white
-     * @return newly-created Pawn object
+     * @return the shared Pawn of that color
      */
     public static Piece create(PlayerColor color)
     {
-        return new PiecePawn(color);
+        return (color == PlayerColor.WHITE) ? WHITE_PAWN : BLACK_PAWN;
     }
 }
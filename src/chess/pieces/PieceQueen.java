@@ -1,14 +1,13 @@
 package chess.pieces;
 
+import chess.board.Attacks;
 import chess.board.BoardState;
-import chess.books.MoveHistory;
 import chess.game.GameProperties;
 import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
 import chess.utility.Location;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.BiFunction;
 
 /**
  *
@@ -16,9 +15,12 @@ import java.util.function.BiFunction;
  */
 public class PieceQueen extends Piece {
     
+    private static final Piece WHITE_QUEEN = new PieceQueen(PlayerColor.WHITE);
+    private static final Piece BLACK_QUEEN = new PieceQueen(PlayerColor.BLACK);
+    
     private PieceQueen(PlayerColor color)
     {
-        super(color);
+        super(color,QUEEN);
     }
 
     /**
@@ -34,45 +36,25 @@ public class PieceQueen extends Piece {
         List<Move> validMoves = new ArrayList<>();
         if (location == null) return validMoves;
         Piece thisPiece = boardState.getPiece(location);
-        if (!(thisPiece instanceof PieceQueen)) return validMoves;
+        if ((thisPiece == null) || (thisPiece.getType() != QUEEN)) return validMoves;
         PlayerColor playerColor = thisPiece.getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
-        Location startLocation;
-        Location nextLocation;
-
-        List<BiFunction<Location,Integer,Location>> locationDirections;
-        locationDirections = new ArrayList<>();
-        locationDirections.add(Location::leftX);
-        locationDirections.add(Location::rightX);
-        locationDirections.add(Location::upX);
-        locationDirections.add(Location::downX);
-        locationDirections.add(Location::upLeftX);
-        locationDirections.add(Location::upRightX);
-        locationDirections.add(Location::downLeftX);
-        locationDirections.add(Location::downRightX);
-
-        startLocation = Location.copyOf(location);
-        for (BiFunction<Location,Integer,Location> function : locationDirections)
+        Location startLocation = Location.copyOf(location);
+        
+        // every square along this queen's rays up to the first piece on each, 
+        // less those held by this player's own pieces
+        long occupied    = boardState.getOccupied();
+        long moveSquares = Attacks.queen(Location.getIndex(location),occupied) & ~boardState.getPieces(playerColor);
+        
+        while (moveSquares != 0)
         {
-            int next = 1;
-            nextLocation = nextLocation(startLocation,next,function);
-            while ((nextLocation != null ) && boardState.isEmpty(nextLocation))
-            {
-                Move newMove = validateMove(startLocation,nextLocation,boardState);
-                if (newMove != null)
-                {
-                    validMoves.add(newMove);
-                }
-                nextLocation = nextLocation(startLocation,next++,function);
-            }
-            if ((nextLocation != null) && !boardState.isEmpty(nextLocation))
+            Location nextLocation = Location.of(Long.numberOfTrailingZeros(moveSquares));
+            moveSquares &= moveSquares - 1;
+            Move newMove = validateMove(startLocation,nextLocation,boardState);
+            if (newMove != null)
             {
-                Move newMove = validateMove(startLocation,nextLocation,boardState);
-                if (newMove != null)
-                {
-                    validMoves.add(newMove);
-                }
+                validMoves.add(newMove);
             }
         }
         
@@ -80,25 +62,23 @@ public class PieceQueen extends Piece {
     }
     
     /**
-     * returns a deep-copy of this Piece, useful if class variables are added later
-     * @return newly created copy of this Queen
+     * returns this Piece: pieces are immutable and shared, so a copy is the piece itself
+     * @return this Queen
      */
     @Override
     public Piece getCopy()
     {
-        Piece newPiece = PieceQueen.create(getColor());
-        newPiece.history = MoveHistory.createFrom(history);
-        return newPiece;
+        return this;
     }
     
     /**
      * factory-style create of a Queen
      * @param color black, or white
-     * @return newly-created Queen object
+     * @return the shared Queen of that color
      */
     public static Piece create(PlayerColor color)
     {
-        return new PieceQueen(color);
+        return (color == PlayerColor.WHITE) ? WHITE_QUEEN : BLACK_QUEEN;
     }
 
 }
@@ -1,14 +1,13 @@
 package chess.pieces;
 
+import chess.board.Attacks;
 import chess.board.BoardState;
-import chess.books.MoveHistory;
 import chess.game.GameProperties;
 import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
 import chess.utility.Location;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.BiFunction;
 
 /**
  *
@@ -16,9 +15,12 @@ import java.util.function.BiFunction;
  */
 public class PieceRook extends Piece {
     
+    private static final Piece WHITE_ROOK = new PieceRook(PlayerColor.WHITE);
+    private static final Piece BLACK_ROOK = new PieceRook(PlayerColor.BLACK);
+    
     private PieceRook(PlayerColor color)
     {
-        super(color);
+        super(color,ROOK);
     }
               
     /**
@@ -34,41 +36,25 @@ public class PieceRook extends Piece {
         List<Move> validMoves = new ArrayList<>();
         if (location == null) return validMoves;
         Piece thisPiece = boardState.getPiece(location);
-        if (!(thisPiece instanceof PieceRook)) return validMoves;
+        if ((thisPiece == null) || (thisPiece.getType() != ROOK)) return validMoves;
         PlayerColor playerColor = thisPiece.getColor();
         PlayerColor opponentColor = GameProperties.getOpponentColor(playerColor);
         
-        Location startLocation;
-        Location nextLocation;
-
-        List<BiFunction<Location,Integer,Location>> locationDirections;
-        locationDirections = new ArrayList<>();
-        locationDirections.add(Location::leftX);
-        locationDirections.add(Location::rightX);
-        locationDirections.add(Location::upX);
-        locationDirections.add(Location::downX);
-
-        startLocation = Location.copyOf(location);
-        for (BiFunction<Location,Integer,Location> function : locationDirections)
+        Location startLocation = Location.copyOf(location);
+        
+        // every square along this rook's rays up to the first piece on each, 
+        // less those held by this player's own pieces
+        long occupied    = boardState.getOccupied();
+        long moveSquares = Attacks.rook(Location.getIndex(location),occupied) & ~boardState.getPieces(playerColor);
+        
+        while (moveSquares != 0)
         {
-            int next = 1;
-            nextLocation = nextLocation(startLocation,next,function);
-            while ((nextLocation != null ) && boardState.isEmpty(nextLocation))
-            {
-                Move newMove = validateMove(startLocation,nextLocation,boardState);
-                if (newMove != null)
-                {
-                    validMoves.add(newMove);
-                }
-                nextLocation = nextLocation(startLocation,next++,function);
-            }
-            if ((nextLocation != null) && !boardState.isEmpty(nextLocation))
+            Location nextLocation = Location.of(Long.numberOfTrailingZeros(moveSquares));
+            moveSquares &= moveSquares - 1;
+            Move newMove = validateMove(startLocation,nextLocation,boardState);
+            if (newMove != null)
             {
-                Move newMove = validateMove(startLocation,nextLocation,boardState);
-                if (newMove != null)
-                {
-                    validMoves.add(newMove);
-                }
+                validMoves.add(newMove);
             }
         }
         
@@ -76,24 +62,22 @@ public class PieceRook extends Piece {
     }
         
     /**
-     * returns a deep-copy of this Piece, useful if class variables are added later
-     * @return newly created copy of this Rook
+     * returns this Piece: pieces are immutable and shared, so a copy is the piece itself
+     * @return this Rook
      */
     @Override
     public Piece getCopy()
     {
-        Piece newPiece = PieceRook.create(getColor());
-        newPiece.history = MoveHistory.createFrom(history);
-        return newPiece;
+        return this;
     }
     
     /**
      * factory-style create of a Rook
      * @param color black, or white
-     * @return newly-created Rook object
+     * @return the shared Rook of that color
      */
     public static Piece create(PlayerColor color)
     {
-        return new PieceRook(color);
+        return (color == PlayerColor.WHITE) ? WHITE_ROOK : BLACK_ROOK;
     }
 }
@@ -6,7 +6,6 @@ import chess.game.GameManager;
 import chess.game.GameProperties.PlayerColor;
 import chess.moves.Move;
 import chess.network.NetworkClient;
-import chess.pieces.Piece;
 import chess.utility.Location;
 import java.util.HashMap;
 import java.util.List;
@@ -47,6 +46,15 @@ public abstract class Player {
     
     public abstract void terminate();
     
+    /**
+     * notifies this player that it is now its turn to move; human and network
+     * players wait for input, so by default this does nothing
+     */
+    public void startTurn()
+    {
+        
+    }
+    
     public void commitMove(Move move)
     {
         GameManager gameManager = Game.getGameManager();
@@ -56,8 +64,7 @@ public abstract class Player {
     protected static List<Move> getValidMoves(Location location)
     {
         BoardState boardState = Game.getBoardState();
-        Piece      piece      = boardState.getPiece(location);
-        return piece.getValidMoves(location, boardState);
+        return boardState.getValidMoves(location);
     }
     
     protected static Map<Location,Move> getValidMoves(List<Move> moves)
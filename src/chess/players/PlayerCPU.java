@@ -1,21 +1,141 @@
 package chess.players;
 
+import chess.board.BoardState;
+import chess.game.Game;
 import chess.game.GameProperties.PlayerColor;
+import chess.graphics.GraphicsBoard;
+import chess.moves.Move;
+import chess.search.Evaluation;
+import chess.search.Search;
+import chess.search.SearchResult;
+import java.awt.EventQueue;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- *
+ * CPU player: when it is this player's turn, a look-ahead Search runs on a
+ * copy of the current board state in a background thread, and the chosen
+ * move is then committed on the event-dispatch thread like a human move
+ * 
+ * every search runs on the same background thread, which waits between
+ * turns, so what each thread keeps warm (its MoveStack, its pawn hash table,
+ * see Evaluation) carries over from one move to the next, as do the helper
+ * threads of the search
+ * 
+ * the search is iterative-deepening, so it answers within its move time
+ * (see Search.setMoveTime) whatever the complexity of the position; it runs
+ * a Lazy SMP search on one thread per available processor by default
+ * (see Search.setThreads), which a game can switch to a Young Brothers Wait
+ * search through getSearch().setParallelMode
  * @author devang
  */
 public class PlayerCPU extends Player {
+    private final Search          search;
+    private final ExecutorService searchExecutor;
+    private SearchTask            searchTask;
 
     public PlayerCPU(PlayerColor color)
     {
         super(color);
+        search = new Search();
+        search.setThreads(Runtime.getRuntime().availableProcessors());
+        searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable,"cpu-search-" + color);
+            thread.setDaemon(true);
+            return thread;
+        });
+        searchTask = null;
     }
     
+    /**
+     * gets the search engine of this player, e.g. to configure depth and node budget
+     * @return Search used to choose moves
+     */
+    public Search getSearch()
+    {
+        return search;
+    }
+    
+    /**
+     * starts searching a copy of the current board state for this player's
+     * move, on the player's search thread
+     */
+    @Override
+    public void startTurn()
+    {
+        BoardState boardState = BoardState.copy(Game.getBoardState());
+        searchTask = new SearchTask(boardState);
+        search.clearStop();
+        searchExecutor.execute(searchTask);
+    }
+    
+    /**
+     * ends the running search, if any, without committing its move, and then
+     * stops the player's threads
+     */
     @Override
     public void terminate()
     {
+        if (searchTask != null) searchTask.end();
+        if (!searchExecutor.isShutdown())
+        {
+            searchExecutor.execute(search::shutdown);
+            searchExecutor.shutdown();
+        }
+    }
+    
+    /**
+     * commits the searched move on the event-dispatch thread and repaints the board
+     * @param move move chosen by the search
+     */
+    protected void commitSearchedMove(Move move)
+    {
+        EventQueue.invokeLater(() -> {
+            commitMove(move);
+            GraphicsBoard graphicsBoard = Game.getGraphicsBoard();
+            if (graphicsBoard != null) graphicsBoard.repaint();
+        });
+    }
+    
+    public class SearchTask implements Runnable
+    {
+        private final BoardState    boardState;
+        private volatile boolean    stopRequested;
+        
+        public SearchTask(BoardState boardState)
+        {
+            this.boardState = boardState;
+            stopRequested   = false;
+        }
+        
+        public void end()
+        {
+            stopRequested = true;
+            search.stop();
+        }
         
+        @Override
+        public void run()
+        {
+            // the pawn hash keeps its entries from the previous moves, only its statistics start over
+            Evaluation.getPawnHashTable().resetStatistics();
+            Logger logger = Logger.getLogger(PlayerCPU.class.getName());
+            search.getTranspositionTable().setStatisticsEnabled(logger.isLoggable(Level.FINE));
+            SearchResult result = search.search(boardState,getColor());
+            for (SearchResult iteration : search.getIterations())
+                logger.log(Level.FINE,"cpu iteration: " + iteration.toString());
+            logger.log(Level.INFO,"cpu search: " + result.toString());
+            logger.log(Level.FINE,String.format("cpu ordering: ebf %.2f, first-move cutoffs %.1f%%",
+                                                search.getEffectiveBranchingFactor(),100 * search.getFirstMoveCutoffRate()));
+            logger.log(Level.FINE,"cpu thread nodes: " + Arrays.toString(search.getThreadNodes()));
+            logger.log(Level.FINE,"cpu " + search.getTranspositionTable().toString());
+            logger.log(Level.FINE,"cpu " + Evaluation.getPawnHashTable().toString());
+            
+            if (!stopRequested && (result.getMove() != null))
+                commitSearchedMove(result.getMove());
+        }
     }
 }
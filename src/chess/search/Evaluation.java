@@ -0,0 +1,256 @@
+package chess.search;
+
+import chess.board.Attacks;
+import chess.board.BoardState;
+import chess.board.PieceSquareTables;
+import chess.game.GameProperties;
+import chess.game.GameProperties.PlayerColor;
+import chess.pieces.Piece;
+
+/**
+ * Evaluation: static scoring of a board state for the CPU search, in centipawns
+ * 
+ * scores are always from the point of view of the player whose turn it is to
+ * move (as negamax requires): positive favours that player, negative favours
+ * the opponent
+ * 
+ * a position is scored by material and piece-square tables (see
+ * PieceSquareTables), tapered: the middlegame and endgame scores are blended
+ * by the game phase, so the endgame tables take over as pieces are traded;
+ * the BoardState keeps both scores and the phase up to date as pieces move,
+ * so evaluating a position only reads three fields
+ * 
+ * the pawn structure is scored on top: doubled, isolated and backward pawns
+ * are penalized, and passed pawns rewarded by how far they have advanced,
+ * less if a piece blocks them; since pawns rarely move, the pawn terms and
+ * the passed pawns are cached in a PawnHashTable, one per thread, keyed by
+ * the board's pawn key, and only the blocking is scored for every position;
+ * a table lives as long as its thread, so the CPU player, which searches on
+ * long-lived threads (see PlayerCPU), finds the entries of its previous
+ * moves
+ * 
+ * the material values below are the exchange values used for SEE, move
+ * ordering and pruning margins, not the evaluation's own
+ * @author devang
+ */
+public class Evaluation {
+    public static final int PAWN_VALUE   = 100;
+    public static final int KNIGHT_VALUE = 320;
+    public static final int BISHOP_VALUE = 330;
+    public static final int ROOK_VALUE   = 500;
+    public static final int QUEEN_VALUE  = 900;
+    
+    // material value of each piece type, indexed by Piece.getType (kings are not counted)
+    private static final int[] VALUES = { PAWN_VALUE, KNIGHT_VALUE, BISHOP_VALUE, ROOK_VALUE, QUEEN_VALUE, 0 };
+    
+    // pawn-structure terms, middlegame and endgame; passed pawns by rank, from the player's side
+    private static final int   DOUBLED_MIDDLEGAME     = -10;
+    private static final int   DOUBLED_ENDGAME        = -20;
+    private static final int   ISOLATED_MIDDLEGAME    = -10;
+    private static final int   ISOLATED_ENDGAME       = -15;
+    private static final int   BACKWARD_MIDDLEGAME    = -8;
+    private static final int   BACKWARD_ENDGAME       = -12;
+    private static final int   BLOCKED_PASSED_ENDGAME = -15;
+    private static final int[] PASSED_MIDDLEGAME      = { 0, 0, 5, 10, 15, 25, 40, 0 };
+    private static final int[] PASSED_ENDGAME         = { 0, 5, 10, 20, 35, 55, 80, 0 };
+    
+    // by file: the squares of the files beside it
+    private static final long[] ADJACENT_FILES = new long[8];
+    // by color and square: the squares ahead on the same file; ahead on the same and adjacent
+    // files (which must hold no enemy pawn for a pawn to be passed); beside and behind on the adjacent files
+    private static final long[][] FORWARD_FILE = new long[2][64];
+    private static final long[][] PASSED_SPAN  = new long[2][64];
+    private static final long[][] SUPPORT_SPAN = new long[2][64];
+    
+    // PlayerColor.values() copies its array on every call
+    private static final PlayerColor[] COLORS = PlayerColor.values();
+    
+    private static final ThreadLocal<PawnHashTable> PAWN_TABLES = ThreadLocal.withInitial(PawnHashTable::new);
+    
+    static
+    {
+        long fileA = 0x0101010101010101L;
+        for (int file = 0; file < 8; file++)
+        {
+            if (file > 0) ADJACENT_FILES[file] |= fileA << (file - 1);
+            if (file < 7) ADJACENT_FILES[file] |= fileA << (file + 1);
+        }
+        for (int square = 0; square < 64; square++)
+        {
+            int  rank  = square >>> 3;
+            long file  = fileA << (square & 7);
+            long above = (rank == 7) ? 0 : (-1L << ((rank + 1) * 8));
+            long below = (1L << (rank * 8)) - 1;
+            long level = 0xFFL << (rank * 8);
+            
+            FORWARD_FILE[PlayerColor.WHITE.ordinal()][square] = file & above;
+            FORWARD_FILE[PlayerColor.BLACK.ordinal()][square] = file & below;
+            PASSED_SPAN[PlayerColor.WHITE.ordinal()][square]  = (file | ADJACENT_FILES[square & 7]) & above;
+            PASSED_SPAN[PlayerColor.BLACK.ordinal()][square]  = (file | ADJACENT_FILES[square & 7]) & below;
+            SUPPORT_SPAN[PlayerColor.WHITE.ordinal()][square] = ADJACENT_FILES[square & 7] & (below | level);
+            SUPPORT_SPAN[PlayerColor.BLACK.ordinal()][square] = ADJACENT_FILES[square & 7] & (above | level);
+        }
+    }
+    
+    private Evaluation()
+    {
+        
+    }
+    
+    /**
+     * gets the material value of a single piece (kings are not counted)
+     * @param piece piece to value
+     * @return value of the piece in centipawns
+     */
+    public static int getValue(Piece piece)
+    {
+        return VALUES[piece.getType()];
+    }
+    
+    /**
+     * gets the material value of a piece type (kings are not counted)
+     * @param pieceType Piece.PAWN ... Piece.KING
+     * @return value of the piece type in centipawns
+     */
+    public static int getTypeValue(int pieceType)
+    {
+        return VALUES[pieceType];
+    }
+    
+    /**
+     * gets the pawn hash table of the calling thread, e.g. for its statistics
+     * @return table the calling thread's evaluations cache pawn structures in
+     */
+    public static PawnHashTable getPawnHashTable()
+    {
+        return PAWN_TABLES.get();
+    }
+    
+    /**
+     * scores the board state by its incrementally-kept piece-square scores
+     * and its cached pawn structure, tapered by the game phase
+     * @param boardState state of the board to score
+     * @param color player from whose point of view to score
+     * @return score of color's position minus the opponent's
+     */
+    public static int evaluate(BoardState boardState, PlayerColor color)
+    {
+        return evaluate(boardState,color,boardState.getMiddlegameScore(),boardState.getEndgameScore(),boardState.getPhase());
+    }
+    
+    /**
+     * scores the board state as evaluate() does, but summing the piece-square
+     * tables over its pieces instead of reading the incrementally-kept sums
+     * (the pawn structure still comes from the pawn hash table); used to
+     * verify them, and as the baseline of the evaluation benchmark
+     * @param boardState state of the board to score
+     * @param color player from whose point of view to score
+     * @return the same score as evaluate()
+     */
+    public static int evaluateFromScratch(BoardState boardState, PlayerColor color)
+    {
+        int middlegame = 0;
+        int endgame    = 0;
+        int phase      = 0;
+        for (PlayerColor side : COLORS)
+        {
+            for (int type = Piece.PAWN; type <= Piece.KING; type++)
+            {
+                int code = Piece.of(side,type).getCode();
+                for (long pieces = boardState.getPieces(side,type); pieces != 0; pieces &= pieces - 1)
+                {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    middlegame += PieceSquareTables.middlegame(code,square);
+                    endgame    += PieceSquareTables.endgame(code,square);
+                    phase      += PieceSquareTables.phase(code);
+                }
+            }
+        }
+        return evaluate(boardState,color,middlegame,endgame,phase);
+    }
+    
+    /**
+     * adds the pawn structure, from the pawn hash table, to the piece-square
+     * scores, and tapers them
+     */
+    private static int evaluate(BoardState boardState, PlayerColor color, int middlegame, int endgame, int phase)
+    {
+        PawnHashTable pawnTable = PAWN_TABLES.get();
+        int index = pawnTable.probe(boardState.getPawnKey());
+        if (index < 0)
+            index = storePawnStructure(boardState,pawnTable);
+        middlegame += pawnTable.getMiddlegameScore(index);
+        endgame    += pawnTable.getEndgameScore(index);
+        
+        long passed       = pawnTable.getPassedPawns(index);
+        long occupied     = boardState.getOccupied();
+        int  whiteBlocked = Long.bitCount(((passed & boardState.getPieces(PlayerColor.WHITE)) << 8) & occupied);
+        int  blackBlocked = Long.bitCount(((passed & boardState.getPieces(PlayerColor.BLACK)) >>> 8) & occupied);
+        endgame += (whiteBlocked - blackBlocked) * BLOCKED_PASSED_ENDGAME;
+        
+        int score = taper(middlegame,endgame,phase);
+        return (color == PlayerColor.WHITE) ? score : -score;
+    }
+    
+    /**
+     * scores the pawn structure of the board state, and stores it in the pawn hash table
+     * @return index of its entry in the table
+     */
+    private static int storePawnStructure(BoardState boardState, PawnHashTable pawnTable)
+    {
+        int  middlegame = 0;
+        int  endgame    = 0;
+        long passed     = 0;
+        for (PlayerColor side : COLORS)
+        {
+            int  sign  = (side == PlayerColor.WHITE) ? 1 : -1;
+            long own   = boardState.getPieces(side,Piece.PAWN);
+            long enemy = boardState.getPieces(GameProperties.getOpponentColor(side),Piece.PAWN);
+            for (long pawns = own; pawns != 0; pawns &= pawns - 1)
+            {
+                int square = Long.numberOfTrailingZeros(pawns);
+                int rank   = (side == PlayerColor.WHITE) ? (square >>> 3) : (7 - (square >>> 3));
+                int stop   = (side == PlayerColor.WHITE) ? (square + 8) : (square - 8);
+                
+                // a pawn behind another of its own is doubled, and cannot be passed
+                boolean doubled = (own & FORWARD_FILE[side.ordinal()][square]) != 0;
+                if (doubled)
+                {
+                    middlegame += sign * DOUBLED_MIDDLEGAME;
+                    endgame    += sign * DOUBLED_ENDGAME;
+                }
+                if ((own & ADJACENT_FILES[square & 7]) == 0)
+                {
+                    middlegame += sign * ISOLATED_MIDDLEGAME;
+                    endgame    += sign * ISOLATED_ENDGAME;
+                }
+                else if (((own & SUPPORT_SPAN[side.ordinal()][square]) == 0) && ((Attacks.pawn(side,stop) & enemy) != 0))
+                {
+                    // no pawn beside or behind can defend it, and it cannot advance safely
+                    middlegame += sign * BACKWARD_MIDDLEGAME;
+                    endgame    += sign * BACKWARD_ENDGAME;
+                }
+                if (!doubled && ((enemy & PASSED_SPAN[side.ordinal()][square]) == 0))
+                {
+                    passed     |= 1L << square;
+                    middlegame += sign * PASSED_MIDDLEGAME[rank];
+                    endgame    += sign * PASSED_ENDGAME[rank];
+                }
+            }
+        }
+        return pawnTable.store(boardState.getPawnKey(),middlegame,endgame,passed);
+    }
+    
+    /**
+     * blends a middlegame and an endgame score by the game phase
+     * @param middlegame score with every piece on the board
+     * @param endgame score with only pawns and kings left
+     * @param phase game phase, clamped to PieceSquareTables.MAX_PHASE (after promotions)
+     * @return weighted average of the two scores
+     */
+    private static int taper(int middlegame, int endgame, int phase)
+    {
+        phase = Math.min(phase,PieceSquareTables.MAX_PHASE);
+        return ((middlegame * phase) + (endgame * (PieceSquareTables.MAX_PHASE - phase))) / PieceSquareTables.MAX_PHASE;
+    }
+}
@@ -0,0 +1,288 @@
+package chess.search;
+
+import chess.board.BoardState;
+import chess.board.MoveGenerator;
+import chess.game.GameProperties.PlayerColor;
+import chess.moves.PackedMove;
+import chess.moves.PackedMoveList;
+
+/**
+ * MovePicker: hands out the legal moves of a search node one at a time, best
+ * first, generating them in stages so that a node cut off by its first few
+ * moves never generates the rest:<br>
+ * 1. the hash move from the transposition table<br>
+ * 2. winning captures (and promotions), most valuable victim first, then least valuable attacker<br>
+ * 3. the killer moves: quiet moves that caused a cut-off at the same ply elsewhere<br>
+ * 4. the counter-move: the quiet move that last refuted the opponent's previous move<br>
+ * 5. the quiet moves, by their history score<br>
+ * 6. the losing captures, deferred from stage 2<br>
+ * a capture is losing if the piece left on the square is worth more than
+ * what it won, and the StaticExchange on the square loses material
+ *
+ * for the quiescence search, resetCaptures() picks only the winning
+ * captures, and drops the losing ones
+ *
+ * this is the search's counterpart of the whole-list Piece.getValidMoves /
+ * MoveGenerator.generate API; each stage is picked with a selection sort,
+ * one move per call of next(), since most nodes only use the first few moves
+ *
+ * a search keeps one MovePicker per ply and reset()s it for every node, so
+ * picking moves creates no objects
+ * @author devang
+ */
+public class MovePicker {
+    private static final int HASH_MOVE         = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int WINNING_CAPTURES  = 2;
+    private static final int FIRST_KILLER      = 3;
+    private static final int SECOND_KILLER     = 4;
+    private static final int COUNTER_MOVE      = 5;
+    private static final int GENERATE_QUIETS   = 6;
+    private static final int QUIET_MOVES       = 7;
+    private static final int LOSING_CAPTURES   = 8;
+    private static final int DONE              = 9;
+    
+    private final PackedMoveList captures;
+    private final PackedMoveList quiets;
+    private final PackedMoveList losingCaptures;
+    private int[] captureScores;
+    private int[] quietScores;
+    
+    private BoardState  boardState;
+    private PlayerColor color;
+    private int         hashMove;
+    private int         killer1;
+    private int         killer2;
+    private int         counterMove;
+    private int[]       history;
+    private int         stage;
+    private int         index;
+    private boolean     capturesOnly;
+    
+    public MovePicker()
+    {
+        captures       = new PackedMoveList();
+        quiets         = new PackedMoveList();
+        losingCaptures = new PackedMoveList();
+        captureScores  = new int[PackedMoveList.DEFAULT_CAPACITY];
+        quietScores    = new int[PackedMoveList.DEFAULT_CAPACITY];
+    }
+    
+    /**
+     * gets the index of a quiet move in a history table
+     * @param color player making the move
+     * @param move packed move
+     * @return (color << 12) + from-square + 64 * to-square
+     */
+    public static int historyIndex(PlayerColor color, int move)
+    {
+        return (color.ordinal() << 12) | (move & 0xFFF);
+    }
+    
+    /**
+     * starts picking the moves of a new node
+     * @param boardState state of the board at the node
+     * @param color player to move
+     * @param hashMove packed move from the transposition table, NONE if none
+     * @param killer1 most recent killer move of this ply, NONE if none
+     * @param killer2 older killer move of this ply, NONE if none
+     * @param counterMove quiet move that refuted the opponent's previous move, NONE if none
+     * @param history score of each quiet move by historyIndex; higher scores are tried first
+     */
+    public void reset(BoardState boardState, PlayerColor color, int hashMove, int killer1, int killer2, int counterMove,
+                      int[] history)
+    {
+        this.boardState  = boardState;
+        this.color       = color;
+        this.hashMove    = hashMove;
+        this.killer1     = killer1;
+        this.killer2     = (killer2 != killer1) ? killer2 : PackedMove.NONE;
+        this.counterMove = ((counterMove != killer1) && (counterMove != killer2)) ? counterMove : PackedMove.NONE;
+        this.history     = history;
+        capturesOnly = false;
+        stage = HASH_MOVE;
+        index = 0;
+        captures.clear();
+        quiets.clear();
+        losingCaptures.clear();
+    }
+    
+    /**
+     * starts picking the winning captures of a new quiescence node
+     * @param boardState state of the board at the node
+     * @param color player to move
+     */
+    public void resetCaptures(BoardState boardState, PlayerColor color)
+    {
+        reset(boardState,color,PackedMove.NONE,PackedMove.NONE,PackedMove.NONE,PackedMove.NONE,null);
+        capturesOnly = true;
+        stage = GENERATE_CAPTURES;
+    }
+    
+    /**
+     * gets the next move to search
+     * @return packed move, NONE once every legal move has been picked
+     */
+    public int next()
+    {
+        while (true)
+        {
+            switch (stage)
+            {
+                case HASH_MOVE:
+                    stage = GENERATE_CAPTURES;
+                    if (MoveGenerator.isLegal(boardState,color,hashMove)) return hashMove;
+                    break;
+                
+                case GENERATE_CAPTURES:
+                    MoveGenerator.generateCaptures(boardState,color,captures);
+                    scoreCaptures();
+                    index = 0;
+                    stage = WINNING_CAPTURES;
+                    break;
+                
+                case WINNING_CAPTURES:
+                    while (index < captures.size())
+                    {
+                        int move = pickBest(captures,captureScores,index++);
+                        if (move == hashMove) continue;
+                        if (isLosing(move))
+                        {
+                            if (!capturesOnly) losingCaptures.add(move);
+                            continue;
+                        }
+                        return move;
+                    }
+                    stage = capturesOnly ? DONE : FIRST_KILLER;
+                    break;
+                
+                case FIRST_KILLER:
+                    stage = SECOND_KILLER;
+                    if (isNewKiller(killer1)) return killer1;
+                    break;
+                
+                case SECOND_KILLER:
+                    stage = COUNTER_MOVE;
+                    if (isNewKiller(killer2)) return killer2;
+                    break;
+                
+                case COUNTER_MOVE:
+                    stage = GENERATE_QUIETS;
+                    if (isNewKiller(counterMove)) return counterMove;
+                    break;
+                
+                case GENERATE_QUIETS:
+                    MoveGenerator.generateQuiets(boardState,color,quiets);
+                    scoreQuiets();
+                    index = 0;
+                    stage = QUIET_MOVES;
+                    break;
+                
+                case QUIET_MOVES:
+                    while (index < quiets.size())
+                    {
+                        int move = pickBest(quiets,quietScores,index++);
+                        if ((move != hashMove) && (move != killer1) && (move != killer2) && (move != counterMove)) return move;
+                    }
+                    index = 0;
+                    stage = LOSING_CAPTURES;
+                    break;
+                
+                case LOSING_CAPTURES:
+                    // already in MVV-LVA order, as they were deferred
+                    if (index < losingCaptures.size()) return losingCaptures.get(index++);
+                    stage = DONE;
+                    break;
+                
+                default:
+                    return PackedMove.NONE;
+            }
+        }
+    }
+    
+    /**
+     * determines if a killer move or counter-move is to be tried: it must be
+     * quiet, not the hash move, and legal here, since it was found in
+     * another position
+     */
+    private boolean isNewKiller(int killer)
+    {
+        if ((killer == PackedMove.NONE) || (killer == hashMove)) return false;
+        if (PackedMove.isCapture(killer) || PackedMove.isPromotion(killer)) return false;
+        return MoveGenerator.isLegal(boardState,color,killer);
+    }
+    
+    /**
+     * scores captures by most valuable victim, then least valuable attacker;
+     * a promotion also counts the value it adds
+     */
+    private void scoreCaptures()
+    {
+        if (captureScores.length < captures.size())
+            captureScores = new int[captures.size()];
+        for (int i = 0; i < captures.size(); i++)
+        {
+            int move = captures.get(i);
+            captureScores[i] = (materialGain(boardState,move) * 8) - boardState.getPiece(PackedMove.getFrom(move)).getType();
+        }
+    }
+    
+    private void scoreQuiets()
+    {
+        if (quietScores.length < quiets.size())
+            quietScores = new int[quiets.size()];
+        for (int i = 0; i < quiets.size(); i++)
+            quietScores[i] = history[historyIndex(color,quiets.get(i))];
+    }
+    
+    /**
+     * gets the material a capture or promotion wins, before any recapture
+     * @param boardState state of the board before the move
+     * @param move packed move
+     * @return value of the captured piece plus what a promotion adds, in centipawns
+     */
+    static int materialGain(BoardState boardState, int move)
+    {
+        int gain = 0;
+        if (PackedMove.getFlags(move) == PackedMove.EN_PASSANT)
+            gain = Evaluation.PAWN_VALUE;
+        else if (PackedMove.isCapture(move))
+            gain = Evaluation.getValue(boardState.getPiece(PackedMove.getTo(move)));
+        if (PackedMove.isPromotion(move))
+            gain += Evaluation.getTypeValue(PackedMove.getPromotionType(move)) - Evaluation.PAWN_VALUE;
+        return gain;
+    }
+    
+    /**
+     * determines if a capture or promotion loses material; only when the
+     * piece it leaves on the square is worth more than it won is SEE needed
+     */
+    private boolean isLosing(int move)
+    {
+        int pieceType = PackedMove.isPromotion(move) ? PackedMove.getPromotionType(move)
+                                                     : boardState.getPiece(PackedMove.getFrom(move)).getType();
+        if (Evaluation.getTypeValue(pieceType) <= materialGain(boardState,move)) return false;
+        return !StaticExchange.isGoodExchange(boardState,move);
+    }
+    
+    /**
+     * swaps the best-scored move from an index onwards to that index
+     * @return the move now at the index
+     */
+    private static int pickBest(PackedMoveList moves, int[] scores, int from)
+    {
+        int best = from;
+        for (int i = from + 1; i < moves.size(); i++)
+        {
+            if (scores[i] > scores[best]) best = i;
+        }
+        if (best != from)
+        {
+            moves.swap(from,best);
+            int score    = scores[from];
+            scores[from] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(from);
+    }
+}
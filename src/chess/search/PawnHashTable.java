@@ -0,0 +1,153 @@
+package chess.search;
+
+/**
+ * PawnHashTable: fixed-size cache of pawn-structure evaluations, keyed by the
+ * pawn key of a position (see BoardState.getPawnKey), which only changes
+ * when a pawn moves or is captured, so almost every probe in a search hits
+ *
+ * each entry holds the middlegame and endgame scores of the pawn structure,
+ * from white's point of view, and the passed pawns of both players, which
+ * the evaluation goes on to score against the other pieces
+ *
+ * entries are in three parallel arrays and are always replaced; a table is
+ * only used by one thread (Evaluation keeps one per thread), so it has no
+ * locks, and its statistics are plain counters
+ * @author devang
+ */
+public class PawnHashTable {
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+    
+    private final long[] keys;
+    private final int[]  scores;
+    private final long[] passedPawns;
+    private final int    indexMask;
+    
+    private long probes;
+    private long hits;
+    
+    /**
+     * constructor: default size
+     */
+    public PawnHashTable()
+    {
+        this(DEFAULT_ENTRIES);
+    }
+    
+    /**
+     * constructor
+     * @param entries number of entries, rounded down to a power of two
+     */
+    public PawnHashTable(int entries)
+    {
+        entries     = Integer.highestOneBit(Math.max(1,entries));
+        keys        = new long[entries];
+        scores      = new int[entries];
+        passedPawns = new long[entries];
+        indexMask   = entries - 1;
+        // an empty entry has key 0, which is the key of a position without
+        // pawns, and whose pawn structure does score 0 with no passed pawns
+    }
+    
+    public int getEntries()
+    {
+        return keys.length;
+    }
+    
+    /**
+     * empties every entry of the table
+     */
+    public void clear()
+    {
+        for (int index = 0; index < keys.length; index++)
+        {
+            keys[index]        = 0;
+            scores[index]      = 0;
+            passedPawns[index] = 0;
+        }
+        resetStatistics();
+    }
+    
+    /**
+     * looks up a pawn structure
+     * @param pawnKey pawn key of the position
+     * @return index of its entry, -1 if it is not in the table
+     */
+    public int probe(long pawnKey)
+    {
+        probes++;
+        int index = (int)pawnKey & indexMask;
+        if (keys[index] != pawnKey) return -1;
+        hits++;
+        return index;
+    }
+    
+    /**
+     * stores the evaluation of a pawn structure, replacing the entry there
+     * @param pawnKey pawn key of the position
+     * @param middlegame middlegame score, from white's point of view (-32768 - 32767)
+     * @param endgame endgame score, from white's point of view (-32768 - 32767)
+     * @param passed passed pawns of both players
+     * @return index of the entry
+     */
+    public int store(long pawnKey, int middlegame, int endgame, long passed)
+    {
+        int index = (int)pawnKey & indexMask;
+        keys[index]        = pawnKey;
+        scores[index]      = (middlegame << 16) | (endgame & 0xFFFF);
+        passedPawns[index] = passed;
+        return index;
+    }
+    
+    public int getMiddlegameScore(int index)
+    {
+        return scores[index] >> 16;
+    }
+    
+    public int getEndgameScore(int index)
+    {
+        return (short)scores[index];
+    }
+    
+    public long getPassedPawns(int index)
+    {
+        return passedPawns[index];
+    }
+    
+    /////////////////////////////////
+    // statistics
+    
+    public void resetStatistics()
+    {
+        probes = 0;
+        hits   = 0;
+    }
+    
+    public long getProbes()
+    {
+        return probes;
+    }
+    
+    public long getHits()
+    {
+        return hits;
+    }
+    
+    /**
+     * gets the fraction of probes that found their pawn structure
+     * @return 0.0 - 1.0
+     */
+    public double getHitRate()
+    {
+        if (probes == 0) return 0;
+        return (double)hits / probes;
+    }
+    
+    @Override
+    public String toString()
+    {
+        String result = "pawn hash " + keys.length + " entries";
+        result += " probes " + getProbes();
+        result += " hit-rate " + String.format("%.3f",getHitRate());
+        return result;
+    }
+}
@@ -0,0 +1,1167 @@
+package chess.search;
+
+import chess.board.BoardState;
+import chess.game.GameProperties;
+import chess.game.GameProperties.PlayerColor;
+import chess.board.MoveGenerator;
+import chess.moves.PackedMove;
+import chess.moves.PackedMoveList;
+import chess.pieces.Piece;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Search: iterative-deepening negamax look-ahead with alpha-beta pruning used
+ * by the CPU player
+ * 
+ * moves come packed from the MoveGenerator (see PackedMove), and every line
+ * is played out by making, and then taking back, packed moves on a single
+ * board; only the move returned is converted to a Move object; below the
+ * root, each node's moves come from the MovePicker of its ply, which
+ * generates them in stages, best first, into preallocated lists, so the
+ * search allocates nothing per node
+ * 
+ * at the horizon, a quiescence search plays out the captures that do not
+ * lose material (by StaticExchange) until the position is quiet, so a piece
+ * left hanging by the last move is not missed; the side to move may always
+ * stand pat on the static evaluation, and captures that could not raise it
+ * to alpha even with a margin are pruned (delta pruning)
+ * 
+ * quiet moves that cause a beta cut-off are tried early by later nodes:<br>
+ * - killer moves: the two most recent of each ply<br>
+ * - counter-moves: the latest refutation of each opponent's move, by its piece and to-square<br>
+ * - history: a butterfly table, by from- and to-square, scored by depth squared;
+ *   it is aged (halved) at the start of every search and whenever a score
+ *   grows too large, so recent cut-offs count most<br>
+ * each can be switched off, and getEffectiveBranchingFactor and
+ * getFirstMoveCutoffRate measure how well the moves were ordered
+ * 
+ * the search is made selective by four techniques, each of which can be
+ * switched off to measure what it saves:<br>
+ * - principal variation search (PVS): after the first move of a node, moves
+ *   are searched with a zero window, only proving they are no better, and
+ *   re-searched with the full window if one is<br>
+ * - null-move pruning: passing the turn and still failing high at a reduced
+ *   depth (2 plies less, 3 when deep) proves the node will fail high; not
+ *   tried in check, or with only pawns left, where zugzwang is likely<br>
+ * - late move reductions (LMR): quiet moves late in the order are searched
+ *   shallower, by a precomputed table of depth and move number, and
+ *   re-searched at full depth if they beat alpha<br>
+ * - aspiration windows: from depth 4, the root is searched in a narrow
+ *   window around the previous iteration's score, widened on a fail<br>
+ * 
+ * the root is searched to depth 1, 2, 3 ... until one of the limits is met:<br>
+ * - the soft time limit: no new iteration is started once it has passed<br>
+ * - the hard time limit: the running iteration is abandoned<br>
+ * - the node budget, the maximum depth, or a call to stop()<br>
+ * the best move of the last completed iteration is always the one returned
+ * 
+ * results are kept in a TranspositionTable, which can be shared between searches
+ * 
+ * with more than one thread (setThreads), the search is a Lazy SMP search:
+ * helper searches, each on its own copy of the board and thread, search the
+ * same root alongside this one, and share what they find only through the
+ * transposition table, which lets every thread skip subtrees another has
+ * already searched; half of the helpers run one ply ahead (depth
+ * staggering), so the threads spread over more of the tree; the result of
+ * the deepest completed iteration of any thread is returned, and the nodes
+ * of every thread are counted (getThreadNodes); the helpers, and the threads
+ * they run on, are created when the threads are set, and wait, parked,
+ * between searches
+ * 
+ * alternatively (setParallelMode), the threads can split the tree by the
+ * Young Brothers Wait Concept (see YoungBrothersSearch): the root and the
+ * nodes far enough from the horizon search their first move alone, and then
+ * the rest of their moves in parallel, on a ForkJoinPool, cancelling them as
+ * soon as one fails high
+ * @author devang
+ */
+public class Search {
+    /**
+     * how a search with more than one thread shares the work between them
+     */
+    public enum ParallelMode {
+        LAZY_SMP, YOUNG_BROTHERS
+    }
+    
+    public static final int  INFINITE             = 1000000;
+    public static final int  MATE_SCORE           = 100000;
+    public static final int  MATE_BOUND           = MATE_SCORE - 1000;
+    public static final int  DEFAULT_DEPTH        = 32;
+    public static final long DEFAULT_NODE_BUDGET  = 50000000;
+    public static final long DEFAULT_MOVE_TIME    = 2000;
+    public static final int  DEFAULT_SOFT_PERCENT = 50;
+    // deepest ply searched, quiescence included; the nominal depth is limited to half of it
+    public static final int  MAX_PLY              = 128;
+    // margin of delta pruning, for the positional gains a capture might also bring
+    public static final int  DELTA_MARGIN         = 200;
+    // half-width of the first aspiration window, doubled on every fail
+    public static final int  ASPIRATION_WINDOW    = 50;
+    public static final int  ASPIRATION_DEPTH     = 4;
+    public static final int  NULL_MOVE_DEPTH      = 3;
+    public static final int  LMR_DEPTH            = 3;
+    public static final int  LMR_MOVES            = 3;
+    public static final int  MAX_THREADS          = 64;
+    
+    private static final int TIME_CHECK_MASK   = 1023;
+    private static final int SHARED_CHECK_MASK = 63;
+    private static final int HISTORY_SIZE    = 2 << 12;
+    private static final int HISTORY_LIMIT   = 1 << 20;
+    private static final int[] NO_HISTORY    = new int[HISTORY_SIZE];
+    
+    // late move reduction, by remaining depth and move number: 0.75 + ln(depth) * ln(moves) / 2.25
+    private static final int[][] REDUCTIONS = new int[64][64];
+    
+    static
+    {
+        for (int depth = 1; depth < 64; depth++)
+        {
+            for (int moves = 1; moves < 64; moves++)
+                REDUCTIONS[depth][moves] = (int)(0.75 + ((Math.log(depth) * Math.log(moves)) / 2.25));
+        }
+    }
+    
+    private int     maxDepth;
+    private long    nodeBudget;
+    private long    moveTimeMillis;
+    private int     softTimePercent;
+    
+    private long    nodes;
+    private long    startTime;
+    private long    hardDeadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private final List<SearchResult> iterations;
+    private TranspositionTable transpositionTable;
+    private MovePicker[] pickers;
+    private int[][]      killers;
+    private final int[]  history;
+    private final int[]  counterMoves;
+    private boolean      killersEnabled;
+    private boolean      historyEnabled;
+    private boolean      counterMovesEnabled;
+    private boolean      pvsEnabled;
+    private boolean      nullMoveEnabled;
+    private boolean      lateMoveReductionsEnabled;
+    private boolean      aspirationEnabled;
+    
+    private long         betaCutoffs;
+    private long         firstMoveCutoffs;
+    
+    private int          threads;
+    private Search[]     helpers;
+    private ThreadPoolExecutor helperThreads;
+    private long[]       threadNodes;
+    // 0 for the main search; a helper's number, whose odd values search one ply ahead
+    private int          helperIndex;
+    private ParallelMode parallelMode;
+    private YoungBrothersSearch youngBrothers;
+    // of a worker of a YoungBrothersSearch: the split point its subtree was called from
+    private YoungBrothersSearch.SplitPoint splitPoint;
+    // nodes of the whole search, which every thread of a parallel search adds its own to, and those this thread added
+    private AtomicLong   searchNodes;
+    private long         reportedNodes;
+    
+    /**
+     * constructor: default depth, node budget and time limits
+     */
+    public Search()
+    {
+        this(DEFAULT_DEPTH,DEFAULT_NODE_BUDGET);
+    }
+    
+    /**
+     * constructor
+     * @param maxDepth maximum number of plies to look ahead
+     * @param nodeBudget maximum number of positions to visit per search
+     */
+    public Search(int maxDepth, long nodeBudget)
+    {
+        this(maxDepth,nodeBudget,new TranspositionTable());
+    }
+    
+    /**
+     * constructor
+     * @param maxDepth maximum number of plies to look ahead
+     * @param nodeBudget maximum number of positions to visit per search
+     * @param transpositionTable table to probe and store results in
+     */
+    Search(int maxDepth, long nodeBudget, TranspositionTable transpositionTable)
+    {
+        setMaxDepth(maxDepth);
+        setNodeBudget(nodeBudget);
+        setMoveTime(DEFAULT_MOVE_TIME);
+        setSoftTimePercent(DEFAULT_SOFT_PERCENT);
+        iterations = new ArrayList<>();
+        this.transpositionTable = transpositionTable;
+        pickers = new MovePicker[MAX_PLY];
+        killers = new int[MAX_PLY][2];
+        history = new int[HISTORY_SIZE];
+        counterMoves = new int[12 * 64];
+        killersEnabled      = true;
+        historyEnabled      = true;
+        counterMovesEnabled = true;
+        pvsEnabled                = true;
+        nullMoveEnabled           = true;
+        lateMoveReductionsEnabled = true;
+        aspirationEnabled         = true;
+        threads     = 1;
+        helpers     = new Search[0];
+        threadNodes = new long[1];
+        helperIndex = 0;
+        parallelMode = ParallelMode.LAZY_SMP;
+        searchNodes  = new AtomicLong();
+    }
+    
+    public TranspositionTable getTranspositionTable()
+    {
+        return transpositionTable;
+    }
+    
+    /**
+     * replaces the transposition table, e.g. to share one between searches
+     * @param transpositionTable table to probe and store results in
+     */
+    public void setTranspositionTable(TranspositionTable transpositionTable)
+    {
+        this.transpositionTable = transpositionTable;
+    }
+    
+    public int getMaxDepth()
+    {
+        return maxDepth;
+    }
+    
+    public void setMaxDepth(int maxDepth)
+    {
+        this.maxDepth = Math.min(MAX_PLY / 2,Math.max(1,maxDepth));
+    }
+    
+    public long getNodeBudget()
+    {
+        return nodeBudget;
+    }
+    
+    public void setNodeBudget(long nodeBudget)
+    {
+        this.nodeBudget = Math.max(1,nodeBudget);
+    }
+    
+    public long getMoveTime()
+    {
+        return moveTimeMillis;
+    }
+    
+    /**
+     * sets the hard deadline of a search: the running iteration is abandoned
+     * once this many milliseconds have passed
+     * @param moveTimeMillis milliseconds per move
+     */
+    public void setMoveTime(long moveTimeMillis)
+    {
+        this.moveTimeMillis = Math.max(1,moveTimeMillis);
+    }
+    
+    public int getSoftTimePercent()
+    {
+        return softTimePercent;
+    }
+    
+    /**
+     * sets the soft deadline of a search, as a percentage of the move time:
+     * a new iteration is not started once it has passed, since the next
+     * iteration would most likely be abandoned at the hard deadline anyway
+     * @param softTimePercent 1 - 100
+     */
+    public void setSoftTimePercent(int softTimePercent)
+    {
+        this.softTimePercent = Math.min(100,Math.max(1,softTimePercent));
+    }
+    
+    public boolean isKillersEnabled()
+    {
+        return killersEnabled;
+    }
+    
+    public void setKillersEnabled(boolean killersEnabled)
+    {
+        this.killersEnabled = killersEnabled;
+    }
+    
+    public boolean isHistoryEnabled()
+    {
+        return historyEnabled;
+    }
+    
+    public void setHistoryEnabled(boolean historyEnabled)
+    {
+        this.historyEnabled = historyEnabled;
+    }
+    
+    public boolean isCounterMovesEnabled()
+    {
+        return counterMovesEnabled;
+    }
+    
+    public void setCounterMovesEnabled(boolean counterMovesEnabled)
+    {
+        this.counterMovesEnabled = counterMovesEnabled;
+    }
+    
+    public boolean isPvsEnabled()
+    {
+        return pvsEnabled;
+    }
+    
+    public void setPvsEnabled(boolean pvsEnabled)
+    {
+        this.pvsEnabled = pvsEnabled;
+    }
+    
+    public boolean isNullMoveEnabled()
+    {
+        return nullMoveEnabled;
+    }
+    
+    public void setNullMoveEnabled(boolean nullMoveEnabled)
+    {
+        this.nullMoveEnabled = nullMoveEnabled;
+    }
+    
+    public boolean isLateMoveReductionsEnabled()
+    {
+        return lateMoveReductionsEnabled;
+    }
+    
+    public void setLateMoveReductionsEnabled(boolean lateMoveReductionsEnabled)
+    {
+        this.lateMoveReductionsEnabled = lateMoveReductionsEnabled;
+    }
+    
+    public boolean isAspirationEnabled()
+    {
+        return aspirationEnabled;
+    }
+    
+    public void setAspirationEnabled(boolean aspirationEnabled)
+    {
+        this.aspirationEnabled = aspirationEnabled;
+    }
+    
+    public int getThreads()
+    {
+        return threads;
+    }
+    
+    /**
+     * sets the number of threads searching, this one included
+     * @param threads 1 - MAX_THREADS; 1 searches on the calling thread only
+     */
+    public void setThreads(int threads)
+    {
+        this.threads = Math.min(MAX_THREADS,Math.max(1,threads));
+        prepareThreads();
+    }
+    
+    public ParallelMode getParallelMode()
+    {
+        return parallelMode;
+    }
+    
+    /**
+     * sets how the threads of a search share the work, when there are more than one
+     * @param parallelMode LAZY_SMP or YOUNG_BROTHERS
+     */
+    public void setParallelMode(ParallelMode parallelMode)
+    {
+        this.parallelMode = parallelMode;
+        prepareThreads();
+    }
+    
+    /**
+     * creates the helper searches and threads of the parallel mode in use,
+     * unless those of the current number of threads already exist, so that
+     * starting threads is not part of the time of any search
+     */
+    private void prepareThreads()
+    {
+        if (isYoungBrothers())
+        {
+            if ((youngBrothers == null) || (youngBrothers.getThreads() != threads))
+            {
+                if (youngBrothers != null) youngBrothers.shutdown();
+                youngBrothers = new YoungBrothersSearch(this,threads);
+            }
+        }
+        else if ((helperIndex == 0) && (helpers.length != threads - 1))
+        {
+            if (helperThreads != null) helperThreads.shutdown();
+            helperThreads = null;
+            helpers = new Search[threads - 1];
+            for (int index = 0; index < helpers.length; index++)
+            {
+                helpers[index] = new Search(maxDepth,nodeBudget,transpositionTable);
+                helpers[index].helperIndex = index + 1;
+                helpers[index].searchNodes = searchNodes;
+            }
+            if (helpers.length > 0)
+            {
+                AtomicInteger count = new AtomicInteger();
+                helperThreads = new ThreadPoolExecutor(helpers.length,helpers.length,0,TimeUnit.MILLISECONDS,
+                                                       new LinkedBlockingQueue<>(),runnable -> {
+                    Thread thread = new Thread(runnable,"search-helper-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                helperThreads.prestartAllCoreThreads();
+            }
+        }
+    }
+    
+    /**
+     * gets the nodes each thread visited in the last search
+     * @return nodes of this search's thread first, then of each helper's;
+     *         of each worker of the pool, for a Young Brothers search
+     */
+    public long[] getThreadNodes()
+    {
+        return threadNodes.clone();
+    }
+    
+    /**
+     * stops the threads of the helpers and of the YoungBrothersSearch once
+     * this search is no longer needed; the next search, if any, creates them again
+     */
+    public void shutdown()
+    {
+        if (helperThreads != null) helperThreads.shutdown();
+        helperThreads = null;
+        helpers       = new Search[0];
+        if (youngBrothers != null) youngBrothers.shutdown();
+        youngBrothers = null;
+    }
+    
+    /**
+     * requests the running search to stop as soon as possible; the search
+     * still returns the best move of its last completed iteration; the
+     * request stands, and stops any later search too, until clearStop()
+     */
+    public void stop()
+    {
+        stopRequested = true;
+        YoungBrothersSearch parallel = youngBrothers;
+        if (parallel != null) parallel.stop();
+    }
+    
+    /**
+     * withdraws a stop() requested of an earlier search; call it before the
+     * next search is handed to the thread that runs it, not on that thread,
+     * so that a stop() requested in between still stops the search
+     */
+    public void clearStop()
+    {
+        stopRequested = false;
+    }
+    
+    /**
+     * gets the statistics of each completed iteration of the last search;
+     * nodes and elapsed time are counted from the start of the search
+     * @return one SearchResult per completed depth, in order
+     */
+    public List<SearchResult> getIterations()
+    {
+        return new ArrayList<>(iterations);
+    }
+    
+    /**
+     * gets the effective branching factor of the last search: the nodes of
+     * its last completed iteration over those of the iteration before it;
+     * the better the moves are ordered, the closer it is to the square
+     * root of the number of moves
+     * @return effective branching factor, 0 if fewer than two iterations completed
+     */
+    public double getEffectiveBranchingFactor()
+    {
+        int count = iterations.size();
+        if (count < 2) return 0;
+        long lastNodes     = iterations.get(count - 1).getNodes() - iterations.get(count - 2).getNodes();
+        long previousNodes = iterations.get(count - 2).getNodes() - ((count > 2) ? iterations.get(count - 3).getNodes() : 0);
+        return (previousNodes == 0) ? 0 : (double)lastNodes / previousNodes;
+    }
+    
+    /**
+     * gets the number of beta cut-offs of the last search, quiescence not included
+     * @return nodes whose search was cut off
+     */
+    public long getBetaCutoffs()
+    {
+        return betaCutoffs;
+    }
+    
+    /**
+     * gets the fraction of the beta cut-offs of the last search that came
+     * from the first move searched; well-ordered moves give about 0.9
+     * @return first-move cut-offs over all cut-offs, 0 if there were none
+     */
+    public double getFirstMoveCutoffRate()
+    {
+        return (betaCutoffs == 0) ? 0 : (double)firstMoveCutoffs / betaCutoffs;
+    }
+    
+    /**
+     * searches the board state for the best move of the specified player
+     * @param boardState state of the board to search (moves are made and taken back on it)
+     * @param color player to move
+     * @return best move of the deepest completed iteration, with its statistics
+     */
+    public SearchResult search(BoardState boardState, PlayerColor color)
+    {
+        transpositionTable.newSearch();
+        searchNodes.set(0);
+        long start = System.nanoTime();
+        prepareThreads();
+        if (isYoungBrothers())
+        {
+            SearchResult result = iterate(boardState,color,start);
+            threadNodes = youngBrothers.getWorkerNodes();
+            return new SearchResult(result.getMove(),result.getScore(),result.getDepth(),nodes,System.nanoTime() - startTime);
+        }
+        Future<?>[] workers = startHelpers(boardState,color,start);
+        
+        SearchResult result = iterate(boardState,color,start);
+        
+        threadNodes = new long[threads];
+        threadNodes[0] = nodes;
+        long totalNodes = nodes;
+        for (int index = 0; index < workers.length; index++)
+        {
+            helpers[index].stop();
+            try
+            {
+                workers[index].get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException("search helper " + helpers[index].helperIndex + " failed",e.getCause());
+            }
+            SearchResult helperResult = helpers[index].iterations.isEmpty()
+                                      ? null : helpers[index].iterations.get(helpers[index].iterations.size() - 1);
+            if ((helperResult != null) && (helperResult.getDepth() > result.getDepth()))
+                result = helperResult;
+            threadNodes[index + 1] = helpers[index].nodes;
+            totalNodes += helpers[index].nodes;
+        }
+        
+        return new SearchResult(result.getMove(),result.getScore(),result.getDepth(),totalNodes,System.nanoTime() - startTime);
+    }
+    
+    /**
+     * starts the helper searches of a Lazy SMP search on the helper threads,
+     * each on its own copy of the board, sharing this search's table and limits
+     * @param boardState state of the board at the root
+     * @param color player to move at the root
+     * @param start System.nanoTime() the search started at, when the time limits of every thread start
+     * @return the helpers' running searches, empty for a single-threaded search
+     */
+    private Future<?>[] startHelpers(BoardState boardState, PlayerColor color, long start)
+    {
+        Future<?>[] workers = new Future<?>[helpers.length];
+        for (int index = 0; index < helpers.length; index++)
+        {
+            Search     helper = helpers[index];
+            BoardState board  = BoardState.copy(boardState);
+            helper.transpositionTable = transpositionTable;
+            helper.setMaxDepth(maxDepth);
+            helper.setNodeBudget(nodeBudget);
+            helper.setMoveTime(moveTimeMillis);
+            helper.setSoftTimePercent(softTimePercent);
+            helper.killersEnabled            = killersEnabled;
+            helper.historyEnabled            = historyEnabled;
+            helper.counterMovesEnabled       = counterMovesEnabled;
+            helper.pvsEnabled                = pvsEnabled;
+            helper.nullMoveEnabled           = nullMoveEnabled;
+            helper.lateMoveReductionsEnabled = lateMoveReductionsEnabled;
+            helper.aspirationEnabled         = aspirationEnabled;
+            helper.stopRequested             = false;
+            
+            workers[index] = helperThreads.submit(() -> helper.iterate(board,color,start));
+        }
+        return workers;
+    }
+    
+    /**
+     * runs the iterative deepening of one thread
+     * @param boardState state of the board to search
+     * @param color player to move
+     * @param start System.nanoTime() the search started at
+     * @return best move of the last completed iteration, with its statistics
+     */
+    private SearchResult iterate(BoardState boardState, PlayerColor color, long start)
+    {
+        nodes         = 0;
+        reportedNodes = 0;
+        aborted       = false;
+        betaCutoffs      = 0;
+        firstMoveCutoffs = 0;
+        iterations.clear();
+        preparePlies();
+        
+        startTime    = start;
+        hardDeadline = startTime + (moveTimeMillis * 1000000L);
+        long softDeadline = startTime + (moveTimeMillis * 10000L * softTimePercent);
+        if (isYoungBrothers())
+            youngBrothers.newSearch();
+        
+        PackedMoveList moves = new PackedMoveList();
+        MoveGenerator.generate(boardState,color,moves);
+        if (moves.isEmpty())
+            return new SearchResult(null,0,0,0,System.nanoTime() - startTime);
+        
+        SearchResult bestResult = new SearchResult(PackedMove.toMove(moves.get(0)),0,0,0,0);
+        for (int depth = 1 + (helperIndex & 1); depth <= maxDepth; depth++)
+        {
+            SearchResult result = searchAspiration(boardState,color,moves,depth,bestResult.getScore());
+            if (result == null) break;
+            
+            iterations.add(result);
+            bestResult = result;
+            
+            if (Math.abs(result.getScore()) >= MATE_BOUND) break;
+            if (System.nanoTime() >= softDeadline) break;
+        }
+        
+        return new SearchResult(bestResult.getMove(),bestResult.getScore(),bestResult.getDepth(),
+                                nodes,System.nanoTime() - startTime);
+    }
+    
+    /**
+     * searches the root to the specified depth in an aspiration window around
+     * the previous iteration's score, widening the window on the side the
+     * score fell outside of until it falls within
+     * @param boardState state of the board at the root
+     * @param color player to move at the root
+     * @param moves valid root moves, best-first from the previous iteration
+     * @param depth depth of this iteration
+     * @param previousScore score of the previous iteration
+     * @return result of the iteration, or null if it was abandoned
+     */
+    protected SearchResult searchAspiration(BoardState boardState, PlayerColor color, PackedMoveList moves, int depth,
+                                            int previousScore)
+    {
+        int alpha = -INFINITE;
+        int beta  = INFINITE;
+        int delta = ASPIRATION_WINDOW;
+        if (aspirationEnabled && (depth >= ASPIRATION_DEPTH) && (Math.abs(previousScore) < MATE_BOUND))
+        {
+            alpha = previousScore - delta;
+            beta  = previousScore + delta;
+        }
+        
+        while (true)
+        {
+            SearchResult result = searchRoot(boardState,color,moves,depth,alpha,beta);
+            if (result == null) return null;
+            
+            int score = result.getScore();
+            if ((score > alpha) && (score < beta)) return result;
+            delta *= 2;
+            if (score <= alpha) alpha = Math.max(-INFINITE,score - delta);
+            if (score >= beta)  beta  = Math.min(INFINITE,score + delta);
+        }
+    }
+    
+    /**
+     * searches every root move to the specified depth, in a window
+     * @param boardState state of the board at the root
+     * @param color player to move at the root
+     * @param moves valid root moves, best-first from the previous iteration;
+     *        the best move of this iteration is moved to the front
+     * @param depth depth of this iteration
+     * @param alpha lower bound of the search window
+     * @param beta upper bound of the search window
+     * @return result of the iteration, whose score is only a bound if it is
+     *         outside the window, or null if the iteration was abandoned
+     */
+    protected SearchResult searchRoot(BoardState boardState, PlayerColor color, PackedMoveList moves, int depth,
+                                      int alpha, int beta)
+    {
+        if (isYoungBrothers())
+        {
+            Integer score = youngBrothers.searchRoot(boardState,color,moves,depth,alpha,beta);
+            nodes = youngBrothers.getNodes();
+            if (score == null) return null;
+            return new SearchResult(PackedMove.toMove(moves.get(0)),score,depth,nodes,System.nanoTime() - startTime);
+        }
+        
+        PlayerColor opponentColor = GameProperties.getOpponentColor(color);
+        
+        int originalAlpha = alpha;
+        int bestIndex     = -1;
+        int bestScore     = -INFINITE;
+        
+        for (int index = 0; index < moves.size(); index++)
+        {
+            boardState.makeMove(moves.get(index));
+            int score;
+            if ((index == 0) || !pvsEnabled)
+            {
+                score = -negamax(boardState,opponentColor,depth - 1,1,-beta,-alpha);
+            }
+            else
+            {
+                score = -negamax(boardState,opponentColor,depth - 1,1,-alpha - 1,-alpha);
+                if ((score > alpha) && (score < beta))
+                    score = -negamax(boardState,opponentColor,depth - 1,1,-beta,-alpha);
+            }
+            boardState.unmakeMove();
+            if (aborted) return null;
+            if ((bestIndex < 0) || (score > bestScore))
+            {
+                bestIndex = index;
+                bestScore = score;
+            }
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) break;
+        }
+        
+        // search the best move first in the next iteration; when every move
+        // failed low, the scores are only bounds and the order is kept
+        if (bestScore > originalAlpha)
+            moves.moveToFront(bestIndex);
+        return new SearchResult(PackedMove.toMove(moves.get(0)),bestScore,depth,nodes,System.nanoTime() - startTime);
+    }
+    
+    /**
+     * determines if this search is split by a YoungBrothersSearch
+     */
+    private boolean isYoungBrothers()
+    {
+        return (parallelMode == ParallelMode.YOUNG_BROTHERS) && (threads > 1) && (helperIndex == 0);
+    }
+    
+    /**
+     * readies this search as a worker of a YoungBrothersSearch: it shares the
+     * main search's table, limits and settings, and its counts start over
+     * @param main search the worker searches subtrees for
+     */
+    void prepareWorker(Search main)
+    {
+        transpositionTable = main.transpositionTable;
+        setMaxDepth(main.maxDepth);
+        setNodeBudget(main.nodeBudget);
+        searchNodes = main.searchNodes;
+        killersEnabled            = main.killersEnabled;
+        historyEnabled            = main.historyEnabled;
+        counterMovesEnabled       = main.counterMovesEnabled;
+        pvsEnabled                = main.pvsEnabled;
+        nullMoveEnabled           = main.nullMoveEnabled;
+        lateMoveReductionsEnabled = main.lateMoveReductionsEnabled;
+        startTime        = main.startTime;
+        hardDeadline     = main.hardDeadline;
+        nodes            = 0;
+        reportedNodes    = 0;
+        betaCutoffs      = 0;
+        firstMoveCutoffs = 0;
+        preparePlies();
+    }
+    
+    boolean isStopRequested()
+    {
+        return stopRequested;
+    }
+    
+    /**
+     * searches a subtree serially, for a YoungBrothersSearch; the search is
+     * also abandoned once the split point it was called from is cancelled
+     * @param boardState state of the board at the subtree's root
+     * @param color player to move
+     * @param depth remaining plies to search
+     * @param ply distance from the root of the whole search
+     * @param alpha lower bound of the search window
+     * @param beta upper bound of the search window
+     * @param splitPoint split point the subtree belongs to
+     * @return score of the subtree, meaningless if isAborted()
+     */
+    int searchSubtree(BoardState boardState, PlayerColor color, int depth, int ply, int alpha, int beta,
+                      YoungBrothersSearch.SplitPoint splitPoint)
+    {
+        this.splitPoint = splitPoint;
+        aborted = false;
+        return negamax(boardState,color,depth,ply,alpha,beta);
+    }
+    
+    /**
+     * gets the moves of a node in the order this search would pick them, for a YoungBrothersSearch split point
+     * @param boardState state of the board at the node
+     * @param color player to move
+     * @param ply distance from the root
+     * @param hashMove packed move from the transposition table, NONE if none
+     * @return legal moves, best first
+     */
+    PackedMoveList orderMoves(BoardState boardState, PlayerColor color, int ply, int hashMove)
+    {
+        int        counterIndex = counterMovesEnabled ? counterMoveIndex(boardState) : -1;
+        MovePicker picker       = getPicker(ply);
+        picker.reset(boardState,color,hashMove,
+                     killersEnabled ? killers[ply][0] : PackedMove.NONE,
+                     killersEnabled ? killers[ply][1] : PackedMove.NONE,
+                     (counterIndex >= 0) ? counterMoves[counterIndex] : PackedMove.NONE,
+                     historyEnabled ? history : NO_HISTORY);
+        
+        PackedMoveList moves = new PackedMoveList();
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next())
+            moves.add(move);
+        return moves;
+    }
+    
+    boolean isAborted()
+    {
+        return aborted;
+    }
+    
+    void countNode()
+    {
+        nodes++;
+    }
+    
+    long getWorkerNodes()
+    {
+        return nodes;
+    }
+    
+    /**
+     * clears the killers left by the previous search, and ages its history
+     */
+    private void preparePlies()
+    {
+        for (int[] slots : killers)
+            Arrays.fill(slots,PackedMove.NONE);
+        ageHistory();
+    }
+    
+    /**
+     * halves every history score, so older cut-offs weigh less than new ones
+     */
+    private void ageHistory()
+    {
+        for (int index = 0; index < history.length; index++)
+            history[index] >>= 1;
+    }
+    
+    /**
+     * gets the index in the counter-move table of the move last made on the
+     * board, by the piece that made it and its to-square
+     * @param boardState state of the board
+     * @return index into counterMoves, -1 if the last move is not known
+     */
+    private static int counterMoveIndex(BoardState boardState)
+    {
+        int lastMove = boardState.getLastPackedMove();
+        if (lastMove == PackedMove.NONE) return -1;
+        int to = PackedMove.getTo(lastMove);
+        return (boardState.getPiece(to).getCode() * 64) + to;
+    }
+    
+    /**
+     * gets the move picker of a ply, created the first time the ply is reached
+     * @param ply distance from the root
+     * @return picker of the ply
+     */
+    private MovePicker getPicker(int ply)
+    {
+        if (pickers[ply] == null)
+            pickers[ply] = new MovePicker();
+        return pickers[ply];
+    }
+    
+    /**
+     * polls the stop flag and node budget at every node, and the clock
+     * every TIME_CHECK_MASK + 1 nodes; every SHARED_CHECK_MASK + 1 nodes, the
+     * thread adds its nodes to those of the whole search, whose total the
+     * node budget limits, and a worker of a YoungBrothersSearch also polls
+     * its split point
+     * @return true if the search must be abandoned
+     */
+    private boolean checkLimits()
+    {
+        if (stopRequested || (nodes >= nodeBudget))
+            aborted = true;
+        else if (((nodes & TIME_CHECK_MASK) == 0) && (System.nanoTime() >= hardDeadline))
+            aborted = true;
+        else if (((nodes & SHARED_CHECK_MASK) == 0) && (reportNodes() || ((splitPoint != null) && splitPoint.isCancelled())))
+            aborted = true;
+        return aborted;
+    }
+    
+    /**
+     * adds the nodes this thread visited since its last report to those of the whole search
+     * @return true if the node budget of the whole search is used up
+     */
+    private boolean reportNodes()
+    {
+        long count = nodes - reportedNodes;
+        reportedNodes = nodes;
+        return searchNodes.addAndGet(count) >= nodeBudget;
+    }
+    
+    /**
+     * negamax alpha-beta search of one node
+     * @param boardState state of the board at this node
+     * @param color player to move at this node
+     * @param depth remaining plies to search
+     * @param ply distance from the root, used to prefer shorter mates
+     * @param alpha lower bound of the search window
+     * @param beta upper bound of the search window
+     * @return score of the node from the point of view of color
+     */
+    protected int negamax(BoardState boardState, PlayerColor color, int depth, int ply, int alpha, int beta)
+    {
+        if (depth <= 0)
+            return quiesce(boardState,color,ply,alpha,beta);
+        
+        nodes++;
+        if (aborted || checkLimits()) return 0;
+        
+        long key      = boardState.getHashKey();
+        long entry    = transpositionTable.probe(key);
+        int  hashMove = 0;
+        if (entry != 0)
+        {
+            hashMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= depth)
+            {
+                int score = scoreFromTable(TranspositionTable.getScore(entry),ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT) return score;
+                if ((bound == TranspositionTable.BOUND_LOWER) && (score >= beta))  return score;
+                if ((bound == TranspositionTable.BOUND_UPPER) && (score <= alpha)) return score;
+            }
+        }
+        
+        boolean pvNode  = (beta - alpha) > 1;
+        boolean inCheck = boardState.check(color);
+        if (nullMoveEnabled && !pvNode && !inCheck && (depth >= NULL_MOVE_DEPTH) && (Math.abs(beta) < MATE_BOUND)
+            && (boardState.getLastPackedMove() != PackedMove.NONE) && hasPieces(boardState,color))
+        {
+            // below the root every move is packed, so NONE means the last move was a null move
+            int reduction = (depth > 6) ? 3 : 2;
+            boardState.makeNullMove();
+            int score = -negamax(boardState,GameProperties.getOpponentColor(color),depth - 1 - reduction,ply + 1,-beta,-beta + 1);
+            boardState.unmakeMove();
+            if (aborted) return 0;
+            if (score >= beta) return beta;
+        }
+        
+        int[]      killerSlots  = killers[ply];
+        int        counterIndex = counterMovesEnabled ? counterMoveIndex(boardState) : -1;
+        MovePicker picker       = getPicker(ply);
+        picker.reset(boardState,color,hashMove,
+                     killersEnabled ? killerSlots[0] : PackedMove.NONE,
+                     killersEnabled ? killerSlots[1] : PackedMove.NONE,
+                     (counterIndex >= 0) ? counterMoves[counterIndex] : PackedMove.NONE,
+                     historyEnabled ? history : NO_HISTORY);
+        
+        PlayerColor opponentColor = GameProperties.getOpponentColor(color);
+        int originalAlpha = alpha;
+        int bestScore     = -INFINITE;
+        int bestMove      = PackedMove.NONE;
+        int moveCount     = 0;
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next())
+        {
+            moveCount++;
+            boardState.makeMove(move);
+            int score;
+            if ((moveCount == 1) || (!pvsEnabled && !lateMoveReductionsEnabled))
+            {
+                score = -negamax(boardState,opponentColor,depth - 1,ply + 1,-beta,-alpha);
+            }
+            else
+            {
+                int reduction  = lateMoveReductionsEnabled ? getReduction(boardState,move,depth,moveCount,pvNode,inCheck) : 0;
+                int searchBeta = pvsEnabled ? (alpha + 1) : beta;
+                score = -negamax(boardState,opponentColor,depth - 1 - reduction,ply + 1,-searchBeta,-alpha);
+                if ((reduction > 0) && (score > alpha))
+                    score = -negamax(boardState,opponentColor,depth - 1,ply + 1,-searchBeta,-alpha);
+                if ((searchBeta < beta) && (score > alpha) && (score < beta))
+                    score = -negamax(boardState,opponentColor,depth - 1,ply + 1,-beta,-alpha);
+            }
+            boardState.unmakeMove();
+            if (aborted) return 0;
+            if (score > bestScore)
+            {
+                bestScore = score;
+                bestMove  = move;
+            }
+            if (score > alpha) alpha = score;
+            if (alpha >= beta)
+            {
+                betaCutoffs++;
+                if (moveCount == 1) firstMoveCutoffs++;
+                updateQuietCutoff(color,move,depth,killerSlots,counterIndex);
+                break;
+            }
+        }
+        if (bestMove == PackedMove.NONE)
+        {
+            if (inCheck) return -MATE_SCORE + ply;
+            return 0;
+        }
+        
+        int bound;
+        if (bestScore >= beta)              bound = TranspositionTable.BOUND_LOWER;
+        else if (bestScore > originalAlpha) bound = TranspositionTable.BOUND_EXACT;
+        else                                bound = TranspositionTable.BOUND_UPPER;
+        int move = (bound == TranspositionTable.BOUND_UPPER) ? PackedMove.NONE : bestMove;
+        transpositionTable.store(key,move,scoreToTable(bestScore,ply),depth,bound);
+        
+        return bestScore;
+    }
+    
+    /**
+     * gets the late move reduction of a move that has just been made: only
+     * quiet moves late in the order, that neither escape nor give check, are
+     * reduced, and by one ply less at PV nodes
+     * @param boardState state of the board after the move
+     * @param move packed move
+     * @param depth remaining plies of the node the move was made at
+     * @param moveCount number of the move in the node's order, from 1
+     * @param pvNode true if the node is searched with a full window
+     * @param inCheck true if the move was made in check
+     * @return plies to reduce the move's search by, leaving at least 1
+     */
+    static int getReduction(BoardState boardState, int move, int depth, int moveCount, boolean pvNode, boolean inCheck)
+    {
+        if ((depth < LMR_DEPTH) || (moveCount <= LMR_MOVES) || inCheck) return 0;
+        if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) return 0;
+        if (boardState.check(boardState.getSideToMove())) return 0;
+        
+        int reduction = REDUCTIONS[Math.min(depth,63)][Math.min(moveCount,63)];
+        if (pvNode) reduction--;
+        return Math.max(0,Math.min(reduction,depth - 2));
+    }
+    
+    /**
+     * determines if a player has pieces other than pawns and the king; without
+     * them, zugzwang is common and null-move pruning is unsound
+     */
+    private static boolean hasPieces(BoardState boardState, PlayerColor color)
+    {
+        return (boardState.getPieces(color) & ~boardState.getPieces(color,Piece.PAWN) & ~boardState.getPieces(color,Piece.KING)) != 0;
+    }
+    
+    /**
+     * quiescence search of one node beyond the nominal depth: only captures
+     * that do not lose material are searched, unless the player is in check,
+     * when every move is, since it cannot stand pat
+     * @param boardState state of the board at this node
+     * @param color player to move at this node
+     * @param ply distance from the root
+     * @param alpha lower bound of the search window
+     * @param beta upper bound of the search window
+     * @return score of the node from the point of view of color
+     */
+    protected int quiesce(BoardState boardState, PlayerColor color, int ply, int alpha, int beta)
+    {
+        nodes++;
+        if (aborted || checkLimits()) return 0;
+        if (ply >= MAX_PLY - 1)
+            return Evaluation.evaluate(boardState,color);
+        
+        boolean    inCheck  = boardState.check(color);
+        int        standPat = -INFINITE;
+        MovePicker picker   = getPicker(ply);
+        if (inCheck)
+        {
+            picker.reset(boardState,color,PackedMove.NONE,PackedMove.NONE,PackedMove.NONE,PackedMove.NONE,NO_HISTORY);
+        }
+        else
+        {
+            standPat = Evaluation.evaluate(boardState,color);
+            if (standPat >= beta) return standPat;
+            // not even winning a queen by a promoting capture would reach alpha
+            if (standPat + (2 * Evaluation.QUEEN_VALUE) - Evaluation.PAWN_VALUE + DELTA_MARGIN <= alpha) return standPat;
+            if (standPat > alpha) alpha = standPat;
+            picker.resetCaptures(boardState,color);
+        }
+        
+        PlayerColor opponentColor = GameProperties.getOpponentColor(color);
+        int bestScore = standPat;
+        int moveCount = 0;
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next())
+        {
+            moveCount++;
+            if (!inCheck && (standPat + MovePicker.materialGain(boardState,move) + DELTA_MARGIN <= alpha)) continue;
+            
+            boardState.makeMove(move);
+            int score = -quiesce(boardState,opponentColor,ply + 1,-beta,-alpha);
+            boardState.unmakeMove();
+            if (aborted) return 0;
+            if (score > bestScore) bestScore = score;
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) break;
+        }
+        if (inCheck && (moveCount == 0)) return -MATE_SCORE + ply;
+        return bestScore;
+    }
+    
+    /**
+     * records a quiet move that caused a beta cut-off as the newest killer of
+     * its ply and the counter-move of the opponent's last move, and raises
+     * its history score; captures and promotions are already tried early,
+     * so they are not recorded
+     * @param color player who made the move
+     * @param move packed move
+     * @param depth remaining plies of the node it was made at
+     * @param killerSlots the two killer moves of the node's ply
+     * @param counterIndex index of the opponent's last move in the counter-move table, -1 if none
+     */
+    private void updateQuietCutoff(PlayerColor color, int move, int depth, int[] killerSlots, int counterIndex)
+    {
+        if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) return;
+        if (killerSlots[0] != move)
+        {
+            killerSlots[1] = killerSlots[0];
+            killerSlots[0] = move;
+        }
+        if (counterIndex >= 0)
+            counterMoves[counterIndex] = move;
+        
+        int index = MovePicker.historyIndex(color,move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT)
+            ageHistory();
+    }
+    
+    /**
+     * converts a mate score from distance-to-root to distance-to-this-node, 
+     * so it stays correct when the position is reached at another ply
+     * @param score score relative to the root
+     * @param ply distance from the root
+     * @return score relative to this node
+     */
+    static int scoreToTable(int score, int ply)
+    {
+        if (score >= MATE_BOUND)  return score + ply;
+        if (score <= -MATE_BOUND) return score - ply;
+        return score;
+    }
+    
+    static int scoreFromTable(int score, int ply)
+    {
+        if (score >= MATE_BOUND)  return score - ply;
+        if (score <= -MATE_BOUND) return score + ply;
+        return score;
+    }
+}
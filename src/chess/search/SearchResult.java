@@ -0,0 +1,90 @@
+package chess.search;
+
+import chess.moves.Move;
+
+/**
+ * SearchResult: the outcome of one CPU look-ahead search, holding the chosen
+ * Move along with the statistics needed to measure the search itself
+ * (depth reached, nodes visited, wall-clock time and nodes-per-second)
+ * @author devang
+ */
+public class SearchResult {
+    private final Move move;
+    private final int  score;
+    private final int  depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    
+    /**
+     * constructor
+     * @param move best move found by the search, null if there are no legal moves
+     * @param score score of the best move, from the searching player's point of view
+     * @param depth depth (in plies) that was searched
+     * @param nodes number of positions visited by the search
+     * @param elapsedNanos wall-clock time spent searching, in nanoseconds
+     */
+    public SearchResult(Move move, int score, int depth, long nodes, long elapsedNanos)
+    {
+        this.move         = move;
+        this.score        = score;
+        this.depth        = depth;
+        this.nodes        = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    public Move getMove()
+    {
+        return move;
+    }
+    
+    public int getScore()
+    {
+        return score;
+    }
+    
+    public int getDepth()
+    {
+        return depth;
+    }
+    
+    public long getNodes()
+    {
+        return nodes;
+    }
+    
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+    
+    /**
+     * gets the wall-clock time of the search in milliseconds
+     * @return elapsed milliseconds
+     */
+    public long getElapsedMillis()
+    {
+        return elapsedNanos / 1000000L;
+    }
+    
+    /**
+     * gets the search speed
+     * @return nodes visited per second, 0 if no measurable time elapsed
+     */
+    public long getNodesPerSecond()
+    {
+        if (elapsedNanos <= 0) return 0;
+        return (nodes * 1000000000L) / elapsedNanos;
+    }
+    
+    @Override
+    public String toString()
+    {
+        String result = "depth " + depth;
+        result += " score " + score;
+        result += " nodes " + nodes;
+        result += " time " + getElapsedMillis() + "ms";
+        result += " nps " + getNodesPerSecond();
+        if (move != null) result += " move " + move.toString();
+        return result;
+    }
+}
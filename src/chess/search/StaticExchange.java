@@ -0,0 +1,141 @@
+package chess.search;
+
+import chess.board.Attacks;
+import chess.board.BoardState;
+import chess.game.GameProperties;
+import chess.game.GameProperties.PlayerColor;
+import chess.moves.PackedMove;
+import chess.pieces.Piece;
+
+import static chess.game.GameProperties.PlayerColor.BLACK;
+import static chess.game.GameProperties.PlayerColor.WHITE;
+
+/**
+ * StaticExchange: static exchange evaluation (SEE) of a move, i.e. the
+ * material it wins once every capture on its destination square has been
+ * played out, without making any moves on the board
+ *
+ * the exchange is played on bitboards: each side recaptures with its least
+ * valuable attacker, sliders hidden behind a piece that has captured join in
+ * as it leaves the square (x-rays), and either side may stop capturing when
+ * that is better for it; pins and checks are not considered, and a king only
+ * recaptures if the square is no longer defended
+ *
+ * used by the MovePicker to tell winning captures from losing ones, and by
+ * the quiescence search to skip losing captures
+ * @author devang
+ */
+public class StaticExchange {
+    // no exchange can last longer than the 32 pieces on the board
+    private static final int MAX_EXCHANGE = 32;
+    
+    // the gains of the exchange, one per capture; SEE is only called by the thread that owns them
+    private static final ThreadLocal<int[]> GAINS = ThreadLocal.withInitial(() -> new int[MAX_EXCHANGE + 2]);
+    
+    private StaticExchange()
+    {
+    
+    }
+    
+    /**
+     * evaluates the exchange a move starts on its destination square
+     * @param boardState state of the board before the move
+     * @param move packed move; quiet moves are evaluated as well, as the
+     *        material lost if the piece is taken on its new square
+     * @return material won by the side making the move, in centipawns (negative if it loses material)
+     */
+    public static int evaluate(BoardState boardState, int move)
+    {
+        if (PackedMove.isCastle(move)) return 0;
+        
+        int   from  = PackedMove.getFrom(move);
+        int   to    = PackedMove.getTo(move);
+        int[] gains = GAINS.get();
+        
+        PlayerColor side      = boardState.getPiece(from).getColor();
+        int         pieceType = boardState.getPiece(from).getType();
+        long        occupied  = boardState.getOccupied() & ~(1L << from);
+        
+        if (PackedMove.getFlags(move) == PackedMove.EN_PASSANT)
+        {
+            gains[0]  = Evaluation.PAWN_VALUE;
+            occupied &= ~(1L << (to ^ 8));
+        }
+        else
+        {
+            gains[0] = PackedMove.isCapture(move) ? Evaluation.getValue(boardState.getPiece(to)) : 0;
+        }
+        if (PackedMove.isPromotion(move))
+        {
+            pieceType = PackedMove.getPromotionType(move);
+            gains[0] += Evaluation.getTypeValue(pieceType) - Evaluation.PAWN_VALUE;
+        }
+        
+        long attackers = attackersOf(boardState,to,occupied) & occupied;
+        int  depth     = 0;
+        while (depth < MAX_EXCHANGE)
+        {
+            // what the opponent wins by taking the piece now on the square, if it can
+            depth++;
+            gains[depth] = Evaluation.getTypeValue(pieceType) - gains[depth - 1];
+            
+            side = GameProperties.getOpponentColor(side);
+            long sideAttackers = attackers & boardState.getPieces(side);
+            if (sideAttackers == 0) break;
+            
+            // it recaptures with its least valuable attacker
+            int  attackerType = Piece.PAWN;
+            long attacker     = sideAttackers & boardState.getPieces(side,attackerType);
+            while (attacker == 0)
+                attacker = sideAttackers & boardState.getPieces(side,++attackerType);
+            if ((attackerType == Piece.KING) && ((attackers & ~sideAttackers) != 0)) break;
+            
+            occupied  &= ~(attacker & -attacker);
+            attackers |= xrayAttackersOf(boardState,to,occupied);
+            attackers &= occupied;
+            pieceType  = attackerType;
+        }
+        
+        // the last gain was only speculative; each side chooses between
+        // capturing and stopping, from the last capture back to the first
+        while (--depth > 0)
+            gains[depth - 1] = -Math.max(-gains[depth - 1],gains[depth]);
+        return gains[0];
+    }
+    
+    /**
+     * determines if a move does not lose material in the exchange on its destination square
+     * @param boardState state of the board before the move
+     * @param move packed move
+     * @return true if the exchange wins or breaks even
+     */
+    public static boolean isGoodExchange(BoardState boardState, int move)
+    {
+        return evaluate(boardState,move) >= 0;
+    }
+    
+    /**
+     * gets the pieces of both players that attack a square through the given occupancy
+     */
+    private static long attackersOf(BoardState boardState, int square, long occupied)
+    {
+        return (Attacks.pawn(BLACK,square)   & boardState.getPieces(WHITE,Piece.PAWN))
+             | (Attacks.pawn(WHITE,square)   & boardState.getPieces(BLACK,Piece.PAWN))
+             | (Attacks.knight(square)       & (boardState.getPieces(WHITE,Piece.KNIGHT) | boardState.getPieces(BLACK,Piece.KNIGHT)))
+             | (Attacks.king(square)         & (boardState.getPieces(WHITE,Piece.KING) | boardState.getPieces(BLACK,Piece.KING)))
+             | xrayAttackersOf(boardState,square,occupied);
+    }
+    
+    /**
+     * gets the sliders of both players that attack a square through the given
+     * occupancy, which takes in those uncovered as pieces leave the square
+     */
+    private static long xrayAttackersOf(BoardState boardState, int square, long occupied)
+    {
+        long queens  = boardState.getPieces(WHITE,Piece.QUEEN)  | boardState.getPieces(BLACK,Piece.QUEEN);
+        long rooks   = boardState.getPieces(WHITE,Piece.ROOK)   | boardState.getPieces(BLACK,Piece.ROOK);
+        long bishops = boardState.getPieces(WHITE,Piece.BISHOP) | boardState.getPieces(BLACK,Piece.BISHOP);
+        return (Attacks.bishop(square,occupied) & (bishops | queens))
+             | (Attacks.rook(square,occupied)   & (rooks | queens));
+    }
+}
@@ -0,0 +1,307 @@
+package chess.search;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TranspositionTable: fixed-size hash table of search results, keyed by the
+ * Zobrist key of a position and shared by every thread searching a game
+ * 
+ * entries live off-heap in a direct ByteBuffer, so the table puts no objects
+ * on the heap however large it is; each bucket holds two 16-byte entries:<br>
+ * - slot 0 is depth-preferred: it keeps the deepest result of the current search<br>
+ * - slot 1 is always-replace: it takes whatever slot 0 turned away<br>
+ * 
+ * an entry is two longs, (key XOR data) and data; there are no locks, so two
+ * threads may interleave their writes to the same entry, but a torn entry no
+ * longer XORs back to its key and is simply read as a miss
+ * 
+ * data packs the move (16 bits), score (24 bits, signed), depth (8 bits), 
+ * bound (2 bits) and the search generation (8 bits) that stored it
+ * 
+ * the hit, store and collision counters are shared by every thread, so they
+ * are only kept while statistics are enabled (setStatisticsEnabled)
+ * @author devang
+ */
+public class TranspositionTable {
+    public static final int DEFAULT_SIZE_MB = 32;
+    public static final int MAX_SIZE_MB     = 1024;
+    
+    public static final int BOUND_NONE  = 0;
+    public static final int BOUND_UPPER = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_EXACT = 3;
+    
+    private static final int ENTRY_BYTES  = 16;
+    private static final int BUCKET_BYTES = 2 * ENTRY_BYTES;
+    private static final int FILL_SAMPLE  = 1000;
+    
+    private ByteBuffer table;
+    private int        sizeMB;
+    private long       bucketMask;
+    // written by the thread starting a search, read by every thread storing in it
+    private volatile int generation;
+    private boolean    statisticsEnabled;
+    
+    private final LongAdder probes;
+    private final LongAdder hits;
+    private final LongAdder stores;
+    private final LongAdder collisions;
+    
+    /**
+     * constructor: default size
+     */
+    public TranspositionTable()
+    {
+        this(DEFAULT_SIZE_MB);
+    }
+    
+    /**
+     * constructor
+     * @param sizeMB size of the table in megabytes, rounded down to a power of two
+     */
+    public TranspositionTable(int sizeMB)
+    {
+        probes     = new LongAdder();
+        hits       = new LongAdder();
+        stores     = new LongAdder();
+        collisions = new LongAdder();
+        resize(sizeMB);
+    }
+    
+    /**
+     * reallocates (and so clears) the table
+     * @param sizeMB size of the table in megabytes (1 - MAX_SIZE_MB), rounded down to a power of two
+     */
+    public final void resize(int sizeMB)
+    {
+        sizeMB = Integer.highestOneBit(Math.min(MAX_SIZE_MB,Math.max(1,sizeMB)));
+        long numBuckets = ((long)sizeMB << 20) / BUCKET_BYTES;
+        
+        this.sizeMB = sizeMB;
+        bucketMask  = numBuckets - 1;
+        table       = ByteBuffer.allocateDirect((int)(numBuckets * BUCKET_BYTES)).order(ByteOrder.nativeOrder());
+        generation  = 0;
+        resetStatistics();
+    }
+    
+    public int getSizeMB()
+    {
+        return sizeMB;
+    }
+    
+    public boolean isStatisticsEnabled()
+    {
+        return statisticsEnabled;
+    }
+    
+    /**
+     * turns the probe, hit, store and collision counters on or off; set it
+     * before a search starts, not while it runs
+     * @param statisticsEnabled true to count, false to leave the counters as they are
+     */
+    public void setStatisticsEnabled(boolean statisticsEnabled)
+    {
+        this.statisticsEnabled = statisticsEnabled;
+    }
+    
+    /**
+     * empties every entry of the table
+     */
+    public void clear()
+    {
+        for (int index = 0; index < table.capacity(); index += 8)
+            table.putLong(index,0);
+        generation = 0;
+        resetStatistics();
+    }
+    
+    /**
+     * starts a new search generation: entries of older searches are replaced first
+     */
+    public void newSearch()
+    {
+        generation = (generation + 1) & 0xFF;
+    }
+    
+    /**
+     * looks up a position
+     * @param key Zobrist key of the position
+     * @return packed entry data (decode with getMove, getScore, getDepth, getBound), 0 if not found
+     */
+    public long probe(long key)
+    {
+        if (statisticsEnabled) probes.increment();
+        int bucket = bucketOffset(key);
+        for (int slot = 0; slot < BUCKET_BYTES; slot += ENTRY_BYTES)
+        {
+            long check = table.getLong(bucket + slot);
+            long data  = table.getLong(bucket + slot + 8);
+            if (((check ^ data) == key) && (getBound(data) != BOUND_NONE))
+            {
+                if (statisticsEnabled) hits.increment();
+                return data;
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * stores the result of searching a position
+     * @param key Zobrist key of the position
+     * @param move best (or refuting) move, packed (see PackedMove), 0 if none
+     * @param score score of the position
+     * @param depth depth the position was searched to
+     * @param bound BOUND_EXACT, BOUND_LOWER (score is at least) or BOUND_UPPER (score is at most)
+     */
+    public void store(long key, int move, int score, int depth, int bound)
+    {
+        if (statisticsEnabled) stores.increment();
+        int  bucket = bucketOffset(key);
+        long data   = pack(move,score,depth,bound,generation);
+        
+        long check0 = table.getLong(bucket);
+        long data0  = table.getLong(bucket + 8);
+        boolean samePosition = ((check0 ^ data0) == key);
+        boolean replace = samePosition
+                       || (getBound(data0) == BOUND_NONE)
+                       || (getGeneration(data0) != generation)
+                       || (depth >= getDepth(data0));
+        int slot = replace ? 0 : ENTRY_BYTES;
+        
+        // keep the previous best move if this search of the position found none
+        long oldCheck = table.getLong(bucket + slot);
+        long oldData  = table.getLong(bucket + slot + 8);
+        if ((oldCheck ^ oldData) == key)
+        {
+            if ((move == 0) && (getMove(oldData) != 0))
+                data = pack(getMove(oldData),score,depth,bound,generation);
+        }
+        else if (statisticsEnabled && (getBound(oldData) != BOUND_NONE))
+        {
+            collisions.increment();
+        }
+        
+        table.putLong(bucket + slot,key ^ data);
+        table.putLong(bucket + slot + 8,data);
+    }
+    
+    private int bucketOffset(long key)
+    {
+        return (int)((key ^ (key >>> 32)) & bucketMask) * BUCKET_BYTES;
+    }
+    
+    private static long pack(int move, int score, int depth, int bound, int generation)
+    {
+        return  ((long)(move & 0xFFFF))
+             | (((long)(score & 0xFFFFFF)) << 16)
+             | (((long)(Math.max(0,Math.min(255,depth)))) << 40)
+             | (((long)(bound & 0x3)) << 48)
+             | (((long)(generation & 0xFF)) << 50);
+    }
+    
+    public static int getMove(long data)
+    {
+        return (int)(data & 0xFFFF);
+    }
+    
+    public static int getScore(long data)
+    {
+        return ((int)(data >>> 8)) >> 8;
+    }
+    
+    public static int getDepth(long data)
+    {
+        return (int)((data >>> 40) & 0xFF);
+    }
+    
+    public static int getBound(long data)
+    {
+        return (int)((data >>> 48) & 0x3);
+    }
+    
+    private static int getGeneration(long data)
+    {
+        return (int)((data >>> 50) & 0xFF);
+    }
+    
+    /////////////////////////////////
+    // statistics
+    
+    public final void resetStatistics()
+    {
+        probes.reset();
+        hits.reset();
+        stores.reset();
+        collisions.reset();
+    }
+    
+    public long getProbes()
+    {
+        return probes.sum();
+    }
+    
+    public long getHits()
+    {
+        return hits.sum();
+    }
+    
+    public long getStores()
+    {
+        return stores.sum();
+    }
+    
+    /**
+     * gets the number of stores that overwrote the entry of a different position
+     * @return number of collisions
+     */
+    public long getCollisions()
+    {
+        return collisions.sum();
+    }
+    
+    /**
+     * gets the fraction of probes that found their position
+     * @return 0.0 - 1.0
+     */
+    public double getHitRate()
+    {
+        long probeCount = probes.sum();
+        if (probeCount == 0) return 0;
+        return (double)hits.sum() / probeCount;
+    }
+    
+    /**
+     * estimates how full the table is from the entries of the current 
+     * search generation found in its first buckets
+     * @return 0.0 - 1.0
+     */
+    public double getFillRatio()
+    {
+        int buckets = (int)Math.min(FILL_SAMPLE,bucketMask + 1);
+        int used = 0;
+        for (int bucket = 0; bucket < buckets; bucket++)
+        {
+            for (int slot = 0; slot < BUCKET_BYTES; slot += ENTRY_BYTES)
+            {
+                long data = table.getLong((bucket * BUCKET_BYTES) + slot + 8);
+                if ((getBound(data) != BOUND_NONE) && (getGeneration(data) == generation))
+                    used++;
+            }
+        }
+        return (double)used / (2 * buckets);
+    }
+    
+    @Override
+    public String toString()
+    {
+        String result = "tt " + sizeMB + "MB";
+        result += " probes " + getProbes();
+        result += " hit-rate " + String.format("%.3f",getHitRate());
+        result += " stores " + getStores();
+        result += " collisions " + getCollisions();
+        result += " fill " + String.format("%.3f",getFillRatio());
+        return result;
+    }
+}
@@ -0,0 +1,383 @@
+package chess.search;
+
+import chess.board.BoardState;
+import chess.game.GameProperties;
+import chess.game.GameProperties.PlayerColor;
+import chess.moves.PackedMove;
+import chess.moves.PackedMoveList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * YoungBrothersSearch: parallel alpha-beta on a ForkJoinPool by the Young
+ * Brothers Wait Concept (YBWC), the alternative to Lazy SMP a Search uses in
+ * ParallelMode.YOUNG_BROTHERS
+ *
+ * at a split point (the root, and any node with at least SPLIT_DEPTH plies
+ * left), the eldest child is searched first, serially, to establish a bound;
+ * only then are its younger brothers forked, each as a task with its own
+ * copy of the board, searched with a zero window around the split point's
+ * alpha (and re-searched in the full window if they beat it); a brother that
+ * fails high marks the split point as cut off, which cancels the tasks not
+ * yet started and makes those running return as soon as they poll it
+ *
+ * nodes with fewer plies left are searched serially by the worker Search of
+ * the thread the task runs on, which shares the main search's table, limits
+ * and selectivity, and also polls the split point it was called from; the
+ * workers add their nodes to the main search's count, so the node budget is
+ * that of the whole search
+ * @author devang
+ */
+class YoungBrothersSearch {
+    // split points are made only this far from the horizon; shallower subtrees are too small to share
+    public static final int SPLIT_DEPTH = 4;
+    
+    private final Search              main;
+    private final ForkJoinPool        pool;
+    private final ThreadLocal<Search> workers;
+    private final Queue<Search>       allWorkers;
+    private volatile SplitPoint       top;
+    
+    /**
+     * constructor
+     * @param main search whose table, limits and settings the workers copy
+     * @param threads parallelism of the pool
+     */
+    YoungBrothersSearch(Search main, int threads)
+    {
+        this.main  = main;
+        pool       = new ForkJoinPool(threads);
+        allWorkers = new ConcurrentLinkedQueue<>();
+        workers    = ThreadLocal.withInitial(() -> {
+            Search worker = new Search(this.main.getMaxDepth(),this.main.getNodeBudget(),this.main.getTranspositionTable());
+            worker.prepareWorker(this.main);
+            allWorkers.add(worker);
+            return worker;
+        });
+        top = new SplitPoint(null,-Search.INFINITE,Search.INFINITE);
+    }
+    
+    /**
+     * gets the parallelism the pool was created with
+     * @return number of threads
+     */
+    int getThreads()
+    {
+        return pool.getParallelism();
+    }
+    
+    /**
+     * readies the workers for a new search; a stop() already requested of
+     * the main search cancels it from the start
+     */
+    void newSearch()
+    {
+        for (Search worker : allWorkers)
+            worker.prepareWorker(main);
+        top = new SplitPoint(null,-Search.INFINITE,Search.INFINITE);
+        // main.stop() sets its flag before it cuts off the top split point,
+        // so a stop missed by the new split point is seen here
+        if (main.isStopRequested()) top.cutoff = true;
+    }
+    
+    /**
+     * abandons the running search: every split point below the top one is cancelled
+     */
+    void stop()
+    {
+        top.cutoff = true;
+    }
+    
+    /**
+     * gets the nodes each worker visited in this search
+     * @return nodes of each worker, in the order the workers were created
+     */
+    long[] getWorkerNodes()
+    {
+        long[] nodes = new long[allWorkers.size()];
+        int    index = 0;
+        for (Search worker : allWorkers)
+        {
+            if (index == nodes.length) break;
+            nodes[index++] = worker.getWorkerNodes();
+        }
+        return nodes;
+    }
+    
+    long getNodes()
+    {
+        long nodes = 0;
+        for (long workerNodes : getWorkerNodes())
+            nodes += workerNodes;
+        return nodes;
+    }
+    
+    /**
+     * searches every root move to the specified depth as a split point
+     * @param boardState state of the board at the root (left unchanged)
+     * @param color player to move at the root
+     * @param moves valid root moves, best-first; the best move is moved to the front
+     * @param depth depth of this iteration
+     * @param alpha lower bound of the search window
+     * @param beta upper bound of the search window
+     * @return score of the root, or null if the search was abandoned
+     */
+    Integer searchRoot(BoardState boardState, PlayerColor color, PackedMoveList moves, int depth, int alpha, int beta)
+    {
+        SplitPoint splitPoint = new SplitPoint(top,alpha,beta);
+        RootTask   task       = new RootTask(BoardState.copy(boardState),color,moves,depth,splitPoint);
+        try
+        {
+            int score = pool.invoke(task);
+            if (top.cutoff) return null;
+            return score;
+        }
+        catch (CancellationException e)
+        {
+            return null;
+        }
+    }
+    
+    /**
+     * shuts the pool down, once the search is no longer needed
+     */
+    void shutdown()
+    {
+        pool.shutdownNow();
+    }
+    
+    /**
+     * searches one node: serially by this thread's worker below SPLIT_DEPTH,
+     * otherwise as a split point; the result is only valid if the parent
+     * split point has not been cancelled by the time it returns
+     */
+    private int search(BoardState boardState, PlayerColor color, int depth, int ply, int alpha, int beta, SplitPoint parent)
+    {
+        Search worker = workers.get();
+        if (depth < SPLIT_DEPTH)
+        {
+            int score = worker.searchSubtree(boardState,color,depth,ply,alpha,beta,parent);
+            if (worker.isAborted() && !parent.isCancelled())
+                stop();
+            return score;
+        }
+        if (parent.isCancelled()) return 0;
+        worker.countNode();
+        
+        TranspositionTable table = main.getTranspositionTable();
+        long key      = boardState.getHashKey();
+        long entry    = table.probe(key);
+        int  hashMove = PackedMove.NONE;
+        if (entry != 0)
+        {
+            hashMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= depth)
+            {
+                int score = Search.scoreFromTable(TranspositionTable.getScore(entry),ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT) return score;
+                if ((bound == TranspositionTable.BOUND_LOWER) && (score >= beta))  return score;
+                if ((bound == TranspositionTable.BOUND_UPPER) && (score <= alpha)) return score;
+            }
+        }
+        
+        PackedMoveList moves = worker.orderMoves(boardState,color,ply,hashMove);
+        if (moves.isEmpty())
+            return boardState.check(color) ? -Search.MATE_SCORE + ply : 0;
+        
+        SplitPoint splitPoint = new SplitPoint(parent,alpha,beta);
+        int score = searchSplitPoint(boardState,color,moves,depth,ply,splitPoint);
+        if (parent.isCancelled()) return 0;
+        
+        int bound;
+        if (score >= beta)       bound = TranspositionTable.BOUND_LOWER;
+        else if (score > alpha)  bound = TranspositionTable.BOUND_EXACT;
+        else                     bound = TranspositionTable.BOUND_UPPER;
+        int move = (bound == TranspositionTable.BOUND_UPPER) ? PackedMove.NONE : moves.get(splitPoint.bestIndex);
+        table.store(key,move,Search.scoreToTable(score,ply),depth,bound);
+        return score;
+    }
+    
+    /**
+     * searches the moves of a split point: the eldest serially, then the
+     * others in parallel once it has set the bound
+     * @return best score of the split point; splitPoint.bestIndex is its best move
+     */
+    private int searchSplitPoint(BoardState boardState, PlayerColor color, PackedMoveList moves, int depth, int ply,
+                                 SplitPoint splitPoint)
+    {
+        PlayerColor opponentColor = GameProperties.getOpponentColor(color);
+        
+        boardState.makeMove(moves.get(0));
+        int score = -search(boardState,opponentColor,depth - 1,ply + 1,-splitPoint.beta,-splitPoint.alpha,splitPoint.parent);
+        boardState.unmakeMove();
+        if (splitPoint.isCancelled()) return 0;
+        splitPoint.update(score,0);
+        if ((moves.size() == 1) || (score >= splitPoint.beta)) return score;
+        
+        List<BrotherTask> brothers = new ArrayList<>(moves.size() - 1);
+        for (int index = 1; index < moves.size(); index++)
+            brothers.add(new BrotherTask(BoardState.copy(boardState),color,moves.get(index),index,depth,ply,splitPoint));
+        for (int index = brothers.size() - 1; index >= 0; index--)
+            brothers.get(index).fork();
+        
+        // once a brother fails high, those not yet started are cancelled, and
+        // those running return as soon as they see it; all are waited for, so
+        // no task outlives its split point
+        for (BrotherTask brother : brothers)
+        {
+            if (splitPoint.cutoff)
+                brother.cancel(false);
+            try
+            {
+                brother.join();
+            }
+            catch (CancellationException e)
+            {
+                // cancelled before it started
+            }
+        }
+        return splitPoint.bestScore;
+    }
+    
+    /**
+     * the shared state of a split point: its window, its best move so far,
+     * and whether it has been cut off
+     */
+    static final class SplitPoint {
+        final SplitPoint parent;
+        final int        beta;
+        volatile boolean cutoff;
+        volatile int     alpha;
+        int              bestScore;
+        int              bestIndex;
+        
+        SplitPoint(SplitPoint parent, int alpha, int beta)
+        {
+            this.parent    = parent;
+            this.alpha     = alpha;
+            this.beta      = beta;
+            bestScore      = -Search.INFINITE;
+            bestIndex      = 0;
+        }
+        
+        /**
+         * determines if this split point, or any above it, has been cut off
+         * @return true if the searches below it are no longer needed
+         */
+        boolean isCancelled()
+        {
+            for (SplitPoint splitPoint = this; splitPoint != null; splitPoint = splitPoint.parent)
+            {
+                if (splitPoint.cutoff) return true;
+            }
+            return false;
+        }
+        
+        /**
+         * records the score of one of this split point's moves
+         * @param score score of the move
+         * @param index index of the move in the split point's list
+         */
+        synchronized void update(int score, int index)
+        {
+            if (score > bestScore)
+            {
+                bestScore = score;
+                bestIndex = index;
+            }
+            if (score > alpha) alpha = score;
+            if (score >= beta) cutoff = true;
+        }
+    }
+    
+    /**
+     * a younger brother at a split point: one move, searched on its own copy of the board
+     */
+    private final class BrotherTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        
+        private final BoardState boardState;
+        private final PlayerColor color;
+        private final int        move;
+        private final int        index;
+        private final int        depth;
+        private final int        ply;
+        private final SplitPoint splitPoint;
+        
+        BrotherTask(BoardState boardState, PlayerColor color, int move, int index, int depth, int ply, SplitPoint splitPoint)
+        {
+            this.boardState = boardState;
+            this.color      = color;
+            this.move       = move;
+            this.index      = index;
+            this.depth      = depth;
+            this.ply        = ply;
+            this.splitPoint = splitPoint;
+        }
+        
+        @Override
+        protected Integer compute()
+        {
+            if (splitPoint.isCancelled()) return null;
+            PlayerColor opponentColor = GameProperties.getOpponentColor(color);
+            boolean     inCheck       = boardState.check(color);
+            int         alpha         = splitPoint.alpha;
+            int         beta          = splitPoint.beta;
+            
+            Search worker = workers.get();
+            boardState.makeMove(move);
+            int reduction  = worker.isLateMoveReductionsEnabled()
+                           ? Search.getReduction(boardState,move,depth,index + 1,(beta - alpha) > 1,inCheck) : 0;
+            int searchBeta = worker.isPvsEnabled() ? (alpha + 1) : beta;
+            int score = -search(boardState,opponentColor,depth - 1 - reduction,ply + 1,-searchBeta,-alpha,splitPoint);
+            if ((reduction > 0) && (score > alpha) && !splitPoint.isCancelled())
+                score = -search(boardState,opponentColor,depth - 1,ply + 1,-searchBeta,-alpha,splitPoint);
+            if ((searchBeta < beta) && (score > alpha) && (score < beta) && !splitPoint.isCancelled())
+                score = -search(boardState,opponentColor,depth - 1,ply + 1,-beta,-alpha,splitPoint);
+            boardState.unmakeMove();
+            
+            if (splitPoint.isCancelled()) return null;
+            splitPoint.update(score,index);
+            return score;
+        }
+    }
+    
+    /**
+     * the root of one iteration, as a task of the pool, so that its brothers can be forked
+     */
+    private final class RootTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        
+        private final BoardState     boardState;
+        private final PlayerColor    color;
+        private final PackedMoveList moves;
+        private final int            depth;
+        private final SplitPoint     splitPoint;
+        
+        RootTask(BoardState boardState, PlayerColor color, PackedMoveList moves, int depth, SplitPoint splitPoint)
+        {
+            this.boardState = boardState;
+            this.color      = color;
+            this.moves      = moves;
+            this.depth      = depth;
+            this.splitPoint = splitPoint;
+        }
+        
+        @Override
+        protected Integer compute()
+        {
+            int alpha = splitPoint.alpha;
+            int score = searchSplitPoint(boardState,color,moves,depth,0,splitPoint);
+            // search the best move first in the next iteration; when every move failed low the order is kept
+            if (!top.cutoff && (score > alpha))
+                moves.moveToFront(splitPoint.bestIndex);
+            return score;
+        }
+    }
+}
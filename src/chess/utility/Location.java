@@ -1,7 +1,7 @@
 package chess.utility;
 
-import chess.game.GameProperties;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -9,17 +9,99 @@ import java.util.List;
  * 
  * initialized with String pairs "a" - "h" and "1" - "8" 
  * internally handled with 0-based indices, 0 - 7
+ * 
+ * Locations are flyweights: the 64 instances are built once, indexed by
+ * rank*8+file, and every factory method returns one of them, so no Location
+ * is ever allocated after class-load, and two Locations are equal only if 
+ * they are the same object; the neighbours of each square, and the rays 
+ * from it in the 8 directions, are precomputed too
  * @author devang
  */
 public class Location {
 
+    /**
+     * the 8 directions a square has neighbours in, as seen by white, 
+     * declared in pairs of opposites
+     */
+    public enum Ray {
+        UP(0,1),
+        DOWN(0,-1),
+        LEFT(-1,0),
+        RIGHT(1,0),
+        UP_LEFT(-1,1),
+        DOWN_RIGHT(1,-1),
+        UP_RIGHT(1,1),
+        DOWN_LEFT(-1,-1);
+        
+        private final int fileStep;
+        private final int rankStep;
+        
+        Ray(int fileStep, int rankStep)
+        {
+            this.fileStep = fileStep;
+            this.rankStep = rankStep;
+        }
+        
+        /**
+         * gets the direction opposite this one
+         * @return reverse direction
+         */
+        public Ray opposite()
+        {
+            return values()[ordinal() ^ 1];
+        }
+    }
+    
+    private static final Location[]     LOCATIONS = new Location[64];
+    // NAMES[index]: algebraic name of each square, e.g. "e4"
+    private static final String[]       NAMES     = new String[64];
+    // RAYS[ray][index]: squares along a ray from a square, nearest first, empty at the edge
+    private static final Location[][][] RAYS      = new Location[Ray.values().length][64][];
+    private static final List<Location> ALL_LOCATIONS;
+    
+    static
+    {
+        for (int index = 0; index < 64; index++)
+        {
+            LOCATIONS[index] = new Location(index & 7,index >> 3);
+            NAMES[index]     = "abcdefgh".charAt(index & 7) + String.valueOf((index >> 3) + 1);
+        }
+        
+        for (Ray ray : Ray.values())
+        {
+            for (int index = 0; index < 64; index++)
+            {
+                List<Location> squares = new ArrayList<>();
+                int f = (index & 7) + ray.fileStep;
+                int r = (index >> 3) + ray.rankStep;
+                while (isValid(f,r))
+                {
+                    squares.add(LOCATIONS[(r * 8) + f]);
+                    f += ray.fileStep;
+                    r += ray.rankStep;
+                }
+                RAYS[ray.ordinal()][index] = squares.toArray(new Location[squares.size()]);
+            }
+        }
+        
+        List<Location> locationsList = new ArrayList<>();
+        for (int c = 0; c < 8; c++)
+        {
+            for (int r = 0; r < 8; r++)
+                locationsList.add(LOCATIONS[(r * 8) + c]);
+        }
+        ALL_LOCATIONS = Collections.unmodifiableList(locationsList);
+    }
+
     public final int rank;
     public final int file;
+    private final int index;
     
     private Location(int f, int r)
     {
-        rank = r;
-        file = f;
+        rank  = r;
+        file  = f;
+        index = (r * 8) + f;
     }
     public static int getCol(Location location)
     {
@@ -33,11 +115,22 @@ public class Location {
         return location.rank;
     }
     
+    /**
+     * gets the square index of a location, used to index per-square tables
+     * @param location location on the board
+     * @return rank*8+file (0 - 63), -1 if location is null
+     */
+    public static int getIndex(Location location)
+    {
+        if (location == null) return -1;
+        return location.index;
+    }
+    
     public static boolean isEndRow(Location location)
     {
         if (location == null) return false;
         if (location.rank == 0) return true;
-        if (location.file == 7) return true;
+        if (location.rank == 7) return true;
         return false;
     }
     
@@ -53,6 +146,17 @@ public class Location {
         return String.valueOf("abcdefgh".charAt(location.file));
     }
     
+    /**
+     * gets the algebraic name of a location, file then rank
+     * @param location location to name
+     * @return name such as "e4", null if location is null
+     */
+    public static String getName(Location location)
+    {
+        if (location == null) return null;
+        return NAMES[location.index];
+    }
+    
     public static boolean isValid(int col,int row)
     {
         if ((col < 0) || (col >= 8))
@@ -74,204 +178,218 @@ public class Location {
         return isValid(location.file,location.rank);
     }
     
-    public static Location upLeftX(Location location, int x)
+    /**
+     * gets the Location a number of squares away in a direction, from the ray tables
+     * @param location starting location
+     * @param ray direction to step in
+     * @param x number of squares to step, negative to step the opposite way
+     * @return Location reached  -or-  null if location is null or the step leaves the board
+     */
+    public static Location step(Location location, Ray ray, int x)
     {
         if (location == null) return null;
-        return Location.of(location.file-x,location.rank+x);
+        if (x == 0) return location;
+        if (x < 0)
+        {
+            ray = ray.opposite();
+            x   = -x;
+        }
+        Location[] squares = RAYS[ray.ordinal()][location.index];
+        return (x <= squares.length) ? squares[x - 1] : null;
+    }
+    
+    /**
+     * gets the squares along a ray from a location, nearest first, up to the
+     * edge of the board; the array is shared, and must not be modified
+     * @param location starting location
+     * @param ray direction of the ray
+     * @return Locations along the ray, empty if location is on the edge it points to
+     */
+    public static Location[] getRay(Location location, Ray ray)
+    {
+        return RAYS[ray.ordinal()][location.index];
+    }
+    
+    public static Location upLeftX(Location location, int x)
+    {
+        return step(location,Ray.UP_LEFT,x);
     }
     
     public static Location upRightX(Location location, int x)
     {
-        if (location == null) return null;
-        return Location.of(location.file+x,location.rank+x);
+        return step(location,Ray.UP_RIGHT,x);
     }
     
     public static Location downLeftX(Location location, int x)
     {
-        if (location == null) return null;
-        return Location.of(location.file-x,location.rank-x);
+        return step(location,Ray.DOWN_LEFT,x);
     }
     
     public static Location downRightX(Location location, int x)
     {
-        if (location == null) return null;
-        return Location.of(location.file+x,location.rank-x);
+        return step(location,Ray.DOWN_RIGHT,x);
     }
     
     public static Location upX(Location location, int x)
     {
-        if (location == null) return null;
-        return Location.of(location.file,location.rank+x);
+        return step(location,Ray.UP,x);
     }
     
     public static Location downX(Location location, int x)
     {
-        if (location == null) return null;
-        return Location.of(location.file,location.rank-x);
+        return step(location,Ray.DOWN,x);
     }
         
     public static Location leftX(Location location, int x)
     {
-        if (location == null) return null;
-        return Location.of(location.file-x,location.rank);
+        return step(location,Ray.LEFT,x);
     }
             
     public static Location rightX(Location location, int x)
     {
-        if (location == null) return null;
-        return Location.of(location.file+x,location.rank);
+        return step(location,Ray.RIGHT,x);
     }
     
     public static Location upLeft(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file-1,location.rank+1);
+        return step(location,Ray.UP_LEFT,1);
     }
     
     public static Location upLeft2(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file-2,location.rank+2);
+        return step(location,Ray.UP_LEFT,2);
     }
     
     public static Location upRight(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file+1,location.rank+1);
+        return step(location,Ray.UP_RIGHT,1);
     }
     
     public static Location upRight2(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file+2,location.rank+2);
+        return step(location,Ray.UP_RIGHT,2);
     }
     
     public static Location downLeft(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file-1,location.rank-1);
+        return step(location,Ray.DOWN_LEFT,1);
     }
     
     public static Location downLeft2(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file-2,location.rank-2);
+        return step(location,Ray.DOWN_LEFT,2);
     }
     
     public static Location downRight(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file+1,location.rank-1);
+        return step(location,Ray.DOWN_RIGHT,1);
     }
     
     public static Location downRight2(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file+2,location.rank-2);
+        return step(location,Ray.DOWN_RIGHT,2);
     }
     
     public static Location right(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file+1,location.rank);
+        return step(location,Ray.RIGHT,1);
     }
     
     public static Location left(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file-1,location.rank);
+        return step(location,Ray.LEFT,1);
     }
     
     public static Location down(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file,location.rank-1);
+        return step(location,Ray.DOWN,1);
     }
     
     public static Location up(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file,location.rank+1);
+        return step(location,Ray.UP,1);
     }
 
     public static Location up2(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file,location.rank+2);
+        return step(location,Ray.UP,2);
     }
 
     public static Location down2(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file,location.rank-2);
+        return step(location,Ray.DOWN,2);
     }
 
     public static Location left2(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file-2,location.rank);
+        return step(location,Ray.LEFT,2);
     }
 
     public static Location right2(Location location)
     {
-        if (location == null) return null;
-        return Location.of(location.file+2,location.rank);
+        return step(location,Ray.RIGHT,2);
     }
     
+    /**
+     * gets every Location of the board, file by file
+     * @return unmodifiable list of the 64 Locations
+     */
     public static List<Location> allLocations()
     {
-        List<Location> locationsList = new ArrayList<>();
-        for (int c = 0; c < 8; c++)
-        {
-            for (int r = 0; r < 8; r++)
-            {
-                Location location = Location.of(c,r);
-                if (location != null) locationsList.add(location);
-            }
-        }
-        return locationsList;
+        return ALL_LOCATIONS;
     }
 
     
     
     /**
-     * returns a newly-created Location, copy of the specified Location
+     * returns a Location at the same rank,file as the specified Location, 
+     * which (Locations being immutable flyweights) is that Location itself
      * @param location Location to copy
      * @return Location at the same rank,file
      */
     public static Location copyOf(Location location)
     {
-        if (location == null) return null;
-        return new Location(location.file,location.rank);
+        return location;
     }
     
     /**
-     * Creates and returns a new Location object at specified rank,file pair
+     * gets the Location at specified rank,file pair
      * input parameters are lowercase strings
      * @param f "a","b","c","d","e","f","g","h"
      * @param r "1","2","3","4","5","6","7","8"
-     * @return new Location object  -or-  null if either parameter, r or f, are invalid
+     * @return Location object  -or-  null if either parameter, r or f, are invalid
      */
     public static Location at(String f, String r)
     {
         int rank = getRankIndex(r);
         int file = getFileIndex(f);
         if ((rank == -1) || (file == -1)) return null;
-        return new Location(file,rank);
+        return LOCATIONS[(rank * 8) + file];
     }
     
     /**
-     * Creates and returns a new Location object at specified rank,file pair
+     * gets the Location at specified rank,file pair
      * input parameters are zero-based indices 0-7 mapping to a-h and 1-8
      * @param f 0,1,2,3,4,5,6,7
      * @param r 0,1,2,3,4,5,6,7
-     * @return new Location object  -or-  null if either parameter, r or f, are invalid
+     * @return Location object  -or-  null if either parameter, r or f, are invalid
      */
     public static Location of(int f, int r)
     {
         if ((r < 0) || (r > 7)) return null;
         if ((f < 0) || (f > 7)) return null;
-        return new Location(f,r);
+        return LOCATIONS[(r * 8) + f];
+    }
+    
+    /**
+     * gets the Location of a square index
+     * @param index rank*8+file, 0 - 63
+     * @return Location object  -or-  null if index is invalid
+     */
+    public static Location of(int index)
+    {
+        if ((index < 0) || (index > 63)) return null;
+        return LOCATIONS[index];
     }
     
     /**
@@ -321,18 +439,13 @@ public class Location {
     }
 
     /**
-     * Used for HashMaps with Location as a Key, where
-     * Key is based on Rank and File indices
+     * Used for HashMaps with Location as a Key: a perfect hash, 
+     * the square index rank*8+file, so no two Locations collide
      * @return integer hashCode used for Key
      */
     @Override
     public int hashCode() {
-        int x = GameProperties.getNumCols();
-        int y = GameProperties.getNumRows();
-        int result = x*y + 1;
-        result = 31 * result + x;
-        result = 31 * result + y;
-        return result;
+        return index;
     }
     
 }